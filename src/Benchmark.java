@@ -0,0 +1,171 @@
+import logic.Board;
+import logic.Color;
+import logic.Turn;
+import players.alphabeta.AlphaBetaPlayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the time and nodes the alpha beta player needs to complete a fixed search depth on a set of
+ * positions, for several search configurations.
+ * Arguments: depth (default 3), number of positions (default 4), configurations (default "aspiration=0"
+ * and "aspiration=50"). A configuration is a list of options separated by '+', e.g. "threads=4+ybw=true":
+ * pvs=true|false, threads=n, ybw=true|false, aspiration=width (0 for full windows), growth=n,
+ * mtdf=true|false, quiescence=true|false,
+ * lmr=true|false, futility=true|false, nullmove=true|false, halfmove=true|false
+ */
+public class Benchmark {
+    // positions are reached by random turns from the start position
+    private static final long SEED = 7;
+    private static final int RANDOM_TURNS = 6;
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        int positions = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        List<String> configurations = args.length > 2 ? Arrays.asList(args).subList(2, args.length)
+                : Arrays.asList("aspiration=0", "aspiration=50");
+
+        List<Board> boards = createPositions(positions);
+        List<long[][]> results = new ArrayList<>();
+        for (String configuration : configurations) {
+            results.add(measure(boards, depth, configuration));
+        }
+
+        for (int i = 0; i < boards.size(); i++) {
+            StringBuilder line = new StringBuilder("Position " + i + ":");
+            for (int j = 0; j < configurations.size(); j++) {
+                line.append(" ").append(configurations.get(j)).append(" ").append(results.get(j)[0][i])
+                        .append(" ms (").append(results.get(j)[1][i]).append(" nodes)");
+            }
+            System.out.println(line);
+        }
+        long[] baseline = total(results.get(0));
+        for (int j = 0; j < configurations.size(); j++) {
+            long[] total = total(results.get(j));
+            System.out.println("Time to depth " + depth + " with " + configurations.get(j) + ": " + total[0]
+                    + " ms, " + total[1] + " nodes, speedup " + String.format("%.2f", (double) baseline[0] / Math.max(1, total[0]))
+                    + ", nodes " + String.format("%.2f", (double) total[1] / Math.max(1, baseline[1])));
+        }
+        for (int d = 1; d <= depth && d < results.get(0)[2].length; d++) {
+            StringBuilder line = new StringBuilder("Depth " + d + ":");
+            for (int j = 0; j < configurations.size(); j++) {
+                line.append(" ").append(configurations.get(j)).append(" ").append(results.get(j)[2][d])
+                        .append(" ms (").append(results.get(j)[3][d]).append(" nodes)");
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static long[] total(long[][] result) {
+        return new long[]{Arrays.stream(result[0]).sum(), Arrays.stream(result[1]).sum()};
+    }
+
+    /**
+     * Create test positions by playing random turns
+     * @param count number of positions
+     * @return positions, the player to move is always gold
+     */
+    private static List<Board> createPositions(int count) {
+        Random random = new Random(SEED);
+        List<Board> boards = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Board b = new Board();
+            Color c = Color.GOLD;
+            for (int j = 0; j < RANDOM_TURNS; j++) {
+                List<Turn> turns = b.getAllPossibleTurns(c);
+                b.makeTurn(turns.get(random.nextInt(turns.size())));
+                c = c == Color.GOLD ? Color.SILVER : Color.GOLD;
+            }
+            boards.add(b);
+        }
+        return boards;
+    }
+
+    /**
+     * Apply options of a configuration to a player
+     * @param player alpha beta player
+     * @param configuration options separated by '+'
+     */
+    private static void configure(AlphaBetaPlayer player, String configuration) {
+        int aspirationWidth = 50;
+        int aspirationGrowth = 4;
+        for (String option : configuration.split("\\+")) {
+            String[] keyValue = option.split("=", 2);
+            String value = keyValue.length > 1 ? keyValue[1] : "true";
+            switch (keyValue[0]) {
+                case "pvs":
+                    player.setPrincipalVariationSearch(Boolean.parseBoolean(value));
+                    break;
+                case "threads":
+                    player.setThreads(Integer.parseInt(value));
+                    break;
+                case "ybw":
+                    player.setYoungBrothersWait(Boolean.parseBoolean(value));
+                    break;
+                case "aspiration":
+                    aspirationWidth = Integer.parseInt(value);
+                    break;
+                case "growth":
+                    aspirationGrowth = Integer.parseInt(value);
+                    break;
+                case "mtdf":
+                    player.setMtdf(Boolean.parseBoolean(value));
+                    break;
+                case "quiescence":
+                    player.setQuiescenceSearch(Boolean.parseBoolean(value));
+                    break;
+                case "lmr":
+                    player.setLateMoveReductions(Boolean.parseBoolean(value));
+                    break;
+                case "futility":
+                    player.setFutilityPruning(Boolean.parseBoolean(value));
+                    break;
+                case "nullmove":
+                    player.setNullMovePruning(Boolean.parseBoolean(value));
+                    break;
+                case "halfmove":
+                    player.setHalfMovePlies(Boolean.parseBoolean(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        player.setAspirationWindow(aspirationWidth, aspirationGrowth);
+    }
+
+    /**
+     * Measure time and nodes to complete the search depth for every position
+     * @param boards positions
+     * @param depth search depth
+     * @param configuration options of the player
+     * @return time in ms (first array) and number of nodes (second array) for every position, total time
+     * in ms to complete each depth (third array) and total nodes of each depth (fourth array) for depths < 5
+     */
+    private static long[][] measure(List<Board> boards, int depth, String configuration) {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(Color.GOLD, 1, true);
+        configure(player, configuration);
+        player.setMaxDepth(depth);
+        long[][] results = new long[4][];
+        results[0] = new long[boards.size()];
+        results[1] = new long[boards.size()];
+        for (int i = 0; i < boards.size(); i++) {
+            player.newGame();
+            long start = System.currentTimeMillis();
+            player.getNextTurn(boards.get(i).clone());
+            results[0][i] = System.currentTimeMillis() - start;
+            results[1][i] = player.getNodes();
+        }
+        long[][] statistics = player.getStatistics();
+        results[2] = new long[statistics.length];
+        results[3] = new long[statistics.length];
+        for (int d = 0; d < statistics.length; d++) {
+            results[2][d] = statistics[d][0];
+            results[3][d] = statistics[d][1];
+        }
+        player.setThreads(1);
+        return results;
+    }
+}
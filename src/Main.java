@@ -1,10 +1,12 @@
 import logic.Board;
 import logic.Breakthru;
+import logic.Clock;
 import logic.Color;
 import players.Player;
 import players.RandomPlayer;
 import players.HumanPlayer;
 import players.alphabeta.AlphaBetaPlayer;
+import players.alphabeta.TT;
 import ui.GamePresenter;
 import ui.TextPresenter;
 import ui.gui.FramePresenter;
@@ -15,6 +17,21 @@ public class Main {
     private final static Color humanPlayer = Color.SILVER; //Color.SILVER; //Color.GOLD; // Color.SILVER;
     private final static Color randomPlayer= null; // Color.SILVER; // Color.GOLD;
     private final static String gamePresenter = "GUI";
+    // transposition table size in MB (-Dbreakthru.ttMB=...) and whether both AI players use the same table
+    // (-Dbreakthru.sharedTT=true), which is only possible if they use the same evaluation function
+    private final static int ttMegabytes = Integer.getInteger("breakthru.ttMB", 64);
+    private final static boolean sharedTT = Boolean.getBoolean("breakthru.sharedTT");
+    // evaluation function of the AI players (see AlphaBetaPlayer)
+    private final static boolean goldEval = false;
+    private final static boolean silverEval = true;
+    // number of search threads of each AI player (-Dbreakthru.threads=...)
+    private final static int threads = Integer.getInteger("breakthru.threads", 1);
+    // time control in seconds: base time of each player and increment per turn (-Dbreakthru.time=...,
+    // -Dbreakthru.increment=...), no clock if the base time is 0
+    private final static int baseTime = Integer.getInteger("breakthru.time", 0);
+    private final static int increment = Integer.getInteger("breakthru.increment", 0);
+    // AI players search on the time of the opponent (-Dbreakthru.ponder=true)
+    private final static boolean ponder = Boolean.getBoolean("breakthru.ponder");
 
     public static void main(String[] args) {
         Board board = new Board();
@@ -25,8 +42,17 @@ public class Main {
             boardPresenter = new FramePresenter(humanPlayer, lock);
         }
 
-        Player gold = new AlphaBetaPlayer(Color.GOLD, 1, false);
-        Player silver = new AlphaBetaPlayer(Color.SILVER, 1, true);
+        // values in the table depend on the evaluation function
+        boolean shareTable = sharedTT && goldEval == silverEval;
+        if (sharedTT && !shareTable) {
+            System.out.println("AI players with different evaluation functions can't share a transposition table");
+        }
+        TT goldTable = new TT(ttMegabytes);
+        TT silverTable = shareTable ? goldTable : new TT(ttMegabytes);
+        AlphaBetaPlayer goldAI = new AlphaBetaPlayer(Color.GOLD, 1, goldEval, goldTable);
+        AlphaBetaPlayer silverAI = new AlphaBetaPlayer(Color.SILVER, 1, silverEval, silverTable);
+        Player gold = goldAI;
+        Player silver = silverAI;
         Player measuredPlayer = gold;
 
         if (randomPlayer != null && (randomPlayer == humanPlayer)){
@@ -53,7 +79,18 @@ public class Main {
             measuredPlayer=gold;
         }
 
+        // only AI players which play start helper and ponder threads
+        for (Player player : new Player[]{gold, silver}) {
+            if (player instanceof AlphaBetaPlayer) {
+                ((AlphaBetaPlayer) player).setThreads(threads);
+                ((AlphaBetaPlayer) player).setPondering(ponder);
+            }
+        }
+
         Breakthru game = new Breakthru(board, gold, silver, measuredPlayer, boardPresenter);
+        if (baseTime > 0) {
+            game.setClock(new Clock(baseTime * 1000L, increment * 1000L));
+        }
 
         game.play();
     }
@@ -0,0 +1,169 @@
+package logic;
+
+/**
+ * Helper functions for bitboards. A bitboard is a set of squares of the 11x11 board stored in two longs:
+ * squares 0-63 in the first and squares 64-120 in the second long. The square of tile (x, y) is x * 11 + y.
+ */
+public final class BitBoard {
+    public static final int SQUARES = Board.BOARD_SIZE * Board.BOARD_SIZE;
+    // diagonal neighbours of every square (tiles a piece on this square can capture)
+    static final long[][] DIAGONALS = new long[SQUARES][2];
+    // tiles of every row and every column
+    static final long[][] ROWS = new long[Board.BOARD_SIZE][2];
+    static final long[][] COLUMNS = new long[Board.BOARD_SIZE][2];
+    // tiles at the edge of the board
+    static final long[] EDGE = new long[2];
+    // directions of motion moves, STEPS is the difference of square index between neighbouring tiles
+    static final int NORTH = 0;
+    static final int SOUTH = 1;
+    static final int EAST = 2;
+    static final int WEST = 3;
+    static final int[] STEPS = {-Board.BOARD_SIZE, Board.BOARD_SIZE, 1, -1};
+    // tiles from every square to the edge in every direction (without the square itself) and the last tile
+    // of the ray (-1 if the square is at the edge in this direction)
+    private static final long[][][] RAYS = new long[STEPS.length][SQUARES][2];
+    private static final int[][] RAY_ENDS = new int[STEPS.length][SQUARES];
+    // Manhattan distance between every pair of squares
+    private static final int[][] DISTANCES = new int[SQUARES][SQUARES];
+
+    static {
+        for (int x = 0; x < Board.BOARD_SIZE; x++) {
+            for (int y = 0; y < Board.BOARD_SIZE; y++) {
+                int sq = square(x, y);
+                set(ROWS[x], sq);
+                set(COLUMNS[y], sq);
+                if (x == 0 || y == 0 || x == Board.BOARD_SIZE - 1 || y == Board.BOARD_SIZE - 1) {
+                    set(EDGE, sq);
+                }
+                for (int i = x - 1; i <= x + 1; i += 2) {
+                    for (int j = y - 1; j <= y + 1; j += 2) {
+                        if (i >= 0 && j >= 0 && i < Board.BOARD_SIZE && j < Board.BOARD_SIZE) {
+                            set(DIAGONALS[sq], square(i, j));
+                        }
+                    }
+                }
+                int[] steps = {x, Board.BOARD_SIZE - 1 - x, Board.BOARD_SIZE - 1 - y, y};
+                for (int d = 0; d < STEPS.length; d++) {
+                    RAY_ENDS[d][sq] = steps[d] > 0 ? sq + steps[d] * STEPS[d] : -1;
+                    for (int i = 1; i <= steps[d]; i++) {
+                        set(RAYS[d][sq], sq + i * STEPS[d]);
+                    }
+                }
+                for (int other = 0; other < SQUARES; other++) {
+                    DISTANCES[sq][other] = Math.abs(row(other) - x) + Math.abs(column(other) - y);
+                }
+            }
+        }
+    }
+
+    private BitBoard() {
+    }
+
+    /**
+     * Get square index of a tile
+     * @param x 1st coordinate of tile
+     * @param y 2nd coordinate of tile
+     * @return square index
+     */
+    public static int square(int x, int y) {
+        return x * Board.BOARD_SIZE + y;
+    }
+
+    public static int row(int sq) {
+        return sq / Board.BOARD_SIZE;
+    }
+
+    public static int column(int sq) {
+        return sq % Board.BOARD_SIZE;
+    }
+
+    /**
+     * Get Manhattan distance of two squares
+     * @param a first square
+     * @param b second square
+     * @return sum of the row and column distance
+     */
+    public static int distance(int a, int b) {
+        return DISTANCES[a][b];
+    }
+
+    /**
+     * Get the last tile of a ray
+     * @param direction NORTH, SOUTH, EAST or WEST
+     * @param sq square where the ray starts
+     * @return square at the edge of the board or -1 if the ray is empty
+     */
+    static int rayEnd(int direction, int sq) {
+        return RAY_ENDS[direction][sq];
+    }
+
+    /**
+     * Find the first square of a bitboard on a ray: the squares of rays with increasing index are found by the
+     * lowest bit, the others by the highest bit of the masked ray
+     * @param direction NORTH, SOUTH, EAST or WEST
+     * @param sq square where the ray starts
+     * @param bb bitboard, e.g. occupied squares
+     * @return first square on the ray contained in the bitboard or -1 if there is none
+     */
+    static int firstBlocker(int direction, int sq, long[] bb) {
+        long[] ray = RAYS[direction][sq];
+        long low = ray[0] & bb[0];
+        long high = ray[1] & bb[1];
+        if (STEPS[direction] > 0) {
+            if (low != 0) {
+                return Long.numberOfTrailingZeros(low);
+            }
+            if (high != 0) {
+                return 64 + Long.numberOfTrailingZeros(high);
+            }
+        } else {
+            if (high != 0) {
+                return 127 - Long.numberOfLeadingZeros(high);
+            }
+            if (low != 0) {
+                return 63 - Long.numberOfLeadingZeros(low);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether a square is at the edge of the board (the flagship escapes on these squares)
+     * @param sq square index
+     * @return true for edge squares
+     */
+    public static boolean isEdge(int sq) {
+        return isSet(EDGE, sq);
+    }
+
+    public static boolean isSet(long[] bb, int sq) {
+        return (bb[sq >>> 6] & (1L << sq)) != 0;
+    }
+
+    public static void set(long[] bb, int sq) {
+        bb[sq >>> 6] |= 1L << sq;
+    }
+
+    public static void clear(long[] bb, int sq) {
+        bb[sq >>> 6] &= ~(1L << sq);
+    }
+
+    /**
+     * Count squares contained in a bitboard
+     * @param bb bitboard
+     * @return number of squares
+     */
+    public static int count(long[] bb) {
+        return Long.bitCount(bb[0]) + Long.bitCount(bb[1]);
+    }
+
+    /**
+     * Count squares contained in both bitboards
+     * @param a first bitboard
+     * @param b second bitboard
+     * @return number of squares
+     */
+    public static int countBoth(long[] a, long[] b) {
+        return Long.bitCount(a[0] & b[0]) + Long.bitCount(a[1] & b[1]);
+    }
+}
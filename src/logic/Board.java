@@ -8,18 +8,52 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 /**
- * The board class implements the logic of the board.
+ * The board class implements the logic of the board. The position is stored as bitboards (see BitBoard):
+ * one for each piece type and one for each color.
  */
 public class Board implements Cloneable {
     public static final int BOARD_SIZE = 11;
-    private final Tile[][] board;
+    // upper bound for the number of moves of one player (20 ships with at most 20 motion and 4 capture moves)
+    public static final int MAX_MOVES = 512;
+    // one instance per piece type, pieces are identified by their type only
+    private static final Piece[] PIECES = {new Fleetship(Color.SILVER), new Fleetship(Color.GOLD), new Flagship()};
+    // bitboards indexed by piece type (SILVER_FLEET, GOLD_FLEET, FLAGSHIP)
+    private final long[][] pieces = new long[3][2];
+    // bitboards indexed by color ordinal
+    private final long[][] colors = new long[2][2];
+    private final long[] occupied = new long[2];
+    // square of the flagship (-1 if captured) and game result, kept up to date by every move
+    private int flagship = -1;
+    private Result result = Result.SILVER_WON;
+    // evaluation features kept up to date by every move: material by color ordinal, number of silver ships in
+    // every row and column and sum of the Manhattan distances of the silver ships to the flagship
+    private final int[] material = new int[2];
+    private final int[] silverRows = new int[BOARD_SIZE];
+    private final int[] silverColumns = new int[BOARD_SIZE];
+    private int silverDistance;
+    // Zobrist key of the pieces (see Zobrist), kept up to date by every move
+    private long hash;
+    // keys of the positions before every turn of the game and number of turns since the last capture at that time
+    private long[] hashHistory = new long[64];
+    private int[] reversibleHistory = new int[64];
+    private int historySize;
+    private int reversibleTurns;
+    // move buffers used by generateTurns
+    private final int[] movesOne = new int[MAX_MOVES];
+    private final int[] movesTwo = new int[MAX_MOVES];
 
     /**
      * Initialize board with array of tiles
      * @param tiles tiles of new board
      */
     public Board(Tile[][] tiles) {
-        this.board = tiles;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            for (int j = 0; j < BOARD_SIZE; j++) {
+                if (tiles[i][j].isOccupied()) {
+                    putPiece(tiles[i][j].getPiece().getType(), BitBoard.square(i, j));
+                }
+            }
+        }
     }
 
     /**
@@ -27,37 +61,55 @@ public class Board implements Cloneable {
      * 2 horizontal rows of small ships)
      */
     public Board() {
-        // initialize board
-        board = new Tile[BOARD_SIZE][BOARD_SIZE];
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                board[i][j] = new Tile();
-            }
-        }
         // flagship
-        board[5][5].setPiece(new Flagship());
+        putPiece(Piece.FLAGSHIP, BitBoard.square(5, 5));
 
         // silver fleet
         for (int i = Columns.D.col; i < Columns.I.col; i++) {
             for (Columns j : Arrays.asList(Columns.B, Columns.J)) {
-                board[i][j.col].setPiece(new Fleetship(Color.SILVER));
-                board[j.col][i].setPiece(new Fleetship(Color.SILVER));
+                putPiece(Piece.SILVER_FLEET, BitBoard.square(i, j.col));
+                putPiece(Piece.SILVER_FLEET, BitBoard.square(j.col, i));
             }
         }
         // gold fleet
         for (int i = Columns.E.col; i < Columns.H.col; i++) {
             for (Columns j : Arrays.asList(Columns.D, Columns.H)) {
-                board[i][j.col].setPiece(new Fleetship(Color.GOLD));
-                board[j.col][i].setPiece(new Fleetship(Color.GOLD));
+                putPiece(Piece.GOLD_FLEET, BitBoard.square(i, j.col));
+                putPiece(Piece.GOLD_FLEET, BitBoard.square(j.col, i));
             }
         }
     }
 
+    /**
+     * Initialize board as copy of another board
+     * @param original board to be copied
+     */
+    private Board(Board original) {
+        for (int k = 0; k < pieces.length; k++) {
+            System.arraycopy(original.pieces[k], 0, pieces[k], 0, 2);
+        }
+        for (int k = 0; k < colors.length; k++) {
+            System.arraycopy(original.colors[k], 0, colors[k], 0, 2);
+        }
+        System.arraycopy(original.occupied, 0, occupied, 0, 2);
+        flagship = original.flagship;
+        result = original.result;
+        System.arraycopy(original.material, 0, material, 0, 2);
+        System.arraycopy(original.silverRows, 0, silverRows, 0, BOARD_SIZE);
+        System.arraycopy(original.silverColumns, 0, silverColumns, 0, BOARD_SIZE);
+        silverDistance = original.silverDistance;
+        hash = original.hash;
+        hashHistory = original.hashHistory.clone();
+        reversibleHistory = original.reversibleHistory.clone();
+        historySize = original.historySize;
+        reversibleTurns = original.reversibleTurns;
+    }
+
     public String toString() {
         String str = "a b c d e f g h i j k \n";
         for (int i = 0; i < BOARD_SIZE; i++) {
             for (int j = 0; j < BOARD_SIZE; j++) {
-                str += board[i][j] + " ";
+                str += getTile(i, j) + " ";
             }
             str += (BOARD_SIZE - i) + "\n";
         }
@@ -66,13 +118,66 @@ public class Board implements Cloneable {
     }
 
     /**
-     * Get tile on board
+     * Get the piece instance of a piece type
+     * @param type piece type
+     * @return piece
+     */
+    public static Piece getPieceOfType(int type) {
+        return PIECES[type];
+    }
+
+    /**
+     * Get tile on board (the tile is a copy, changing it doesn't change the board)
      * @param i 1st coordinate of tile
      * @param j 2nd coordinate of tile
      * @return tile
      */
     public Tile getTile(int i, int j) {
-        return board[i][j];
+        Tile tile = new Tile();
+        tile.setPiece(getPiece(i, j));
+        return tile;
+    }
+
+    /**
+     * Get piece on tile
+     * @param i 1st coordinate of tile
+     * @param j 2nd coordinate of tile
+     * @return piece or null if the tile is empty
+     */
+    public Piece getPiece(int i, int j) {
+        return pieceAt(BitBoard.square(i, j));
+    }
+
+    private Piece pieceAt(int sq) {
+        int type = getPieceType(sq);
+        return type < 0 ? null : PIECES[type];
+    }
+
+    /**
+     * Get type of the piece on a square
+     * @param sq square index (see BitBoard)
+     * @return piece type or -1 if the square is empty
+     */
+    public int getPieceType(int sq) {
+        if (!BitBoard.isSet(occupied, sq)) {
+            return -1;
+        }
+        for (int type = 0; type < pieces.length; type++) {
+            if (BitBoard.isSet(pieces[type], sq)) {
+                return type;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether tile is occupied
+     * @param i 1st coordinate of tile
+     * @param j 2nd coordinate of tile
+     * @return boolean value
+     */
+    public boolean isOccupied(int i, int j) {
+        return BitBoard.isSet(occupied, BitBoard.square(i, j));
     }
 
     /**
@@ -90,33 +195,43 @@ public class Board implements Cloneable {
      * @return SILVER_WON, GOLD_WON or NONE
      */
     public Result getResult() {
-        int[] flagship = findFlagship();
-        if (flagship == null) {
-            return Result.SILVER_WON;
-        } else if (isAtEdge(flagship)) {
-            return Result.GOLD_WON;
-        }
-        return Result.NONE;
+        return result;
     }
 
     /**
-     * Check if position is at the edge of the board
-     * @param coordinate coordinates stored in int-array [y-axis, x-axis]
-     * @return boolean value
+     * Update flagship square and game result after the flagship was placed or removed
+     * @param sq new square of the flagship or -1 if it was captured
      */
-    private boolean isAtEdge(int[] coordinate) {
-        return coordinate[0] == 0 || coordinate[1] == 0 ||
-                coordinate[0] == BOARD_SIZE - 1 || coordinate[1] == BOARD_SIZE - 1;
+    private void setFlagship(int sq) {
+        flagship = sq;
+        if (sq < 0) {
+            result = Result.SILVER_WON;
+        } else if (BitBoard.isSet(BitBoard.EDGE, sq)) {
+            result = Result.GOLD_WON;
+        } else {
+            result = Result.NONE;
+        }
     }
 
     /**
      * Check whether tile is occupied by player
-     * @param tile tile to be checked
+     * @param x 1st coordinate of tile
+     * @param y 2nd coordinate of tile
      * @param owner color of player
      * @return boolean value
      */
-    private boolean isPieceOwnedBy(Tile tile, Color owner) {
-        return tile.isOccupied() && tile.getPiece().getOwner() == owner;
+    private boolean isPieceOwnedBy(int x, int y, Color owner) {
+        return BitBoard.isSet(colors[owner.ordinal()], BitBoard.square(x, y));
+    }
+
+    /**
+     * Check whether a piece on a square could be captured by the opponent
+     * @param sq square index (see BitBoard)
+     * @param owner owner of the piece
+     * @return true if a piece of the opponent is diagonal to the square
+     */
+    public boolean isAttacked(int sq, Color owner) {
+        return BitBoard.countBoth(BitBoard.DIAGONALS[sq], colors[owner.ordinal() ^ 1]) > 0;
     }
 
     /**
@@ -124,47 +239,83 @@ public class Board implements Cloneable {
      * @return coordinates stored in int-array [y-axis, x-axis]
      */
     public int[] findFlagship() {
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (board[i][j].isOccupied() &&
-                        board[i][j].getPiece().getOwner() == Color.GOLD
-                        && board[i][j].getPiece() instanceof Flagship) {
-                    return new int[]{i, j};
-                }
-            }
+        if (flagship < 0) {
+            return null;
         }
-        return null;
+        return new int[]{BitBoard.row(flagship), BitBoard.column(flagship)};
+    }
+
+    /**
+     * Get square of the flagship piece
+     * @return square index (see BitBoard) or -1 if the flagship was captured
+     */
+    public int getFlagshipSquare() {
+        return flagship;
     }
 
     /**
-     * Get all possible turns a player can do in this board position
+     * Get material score of all pieces of a player
+     * @param player player whose pieces are regarded
+     * @return sum of piece scores
+     */
+    public int getMaterial(Color player) {
+        return material[player.ordinal()];
+    }
+
+    /**
+     * Get all possible turns a player can do in this board position (turns of the same two moves in the other
+     * order are omitted, see generateTurns)
      * @param player player whose turns are regarded
      * @return ArrayList of all possible moves
      */
     public ArrayList<Turn> getAllPossibleTurns(Color player) {
-        ArrayList<Turn> turns = new ArrayList<>();
-        ArrayList<Move> movesOne = getAllPossibleMoves(player);
-        for (Move one : movesOne) {
-            if (one.isSingleMove()) {
-                turns.add(new Turn(one));
-            } else {
-                makeMove(one);
-                if (getResult() != Result.NONE) {
-                    turns.add(new Turn(one));
-                    undoMove(one);
-                    continue;
-                }
-                ArrayList<Move> movesTwo = getAllPossibleMoves(player);
-                // remove one-move turns and moves that involve the same ship as in move 1 again
-                movesTwo.removeIf(Move::isSingleMove);
-                movesTwo.removeIf(s -> (s.getX1() == one.getX2() && s.getY1() == one.getY2()));
-                for (Move two : movesTwo) {
-                    turns.add(new Turn(one, two));
-                }
+        TurnList list = new TurnList();
+        generateTurns(player, list);
+        ArrayList<Turn> turns = new ArrayList<>(list.size());
+        for (int i = 0; i < list.size(); i++) {
+            turns.add(toTurn(list.get(i)));
+        }
+        return turns;
+    }
+
+    /**
+     * Write all possible turns a player can do in this board position into a buffer (encoded as int, see Turn).
+     * Turns made up of one capture or flagship move come first, followed by all turns of two motion moves.
+     * Two independent motion moves are only produced in canonical order (see Turn.isCanonical), so every
+     * position is reached by one turn.
+     * @param player player whose turns are regarded
+     * @param turns buffer for the turns, it is cleared first
+     */
+    public void generateTurns(Color player, TurnList turns) {
+        turns.clear();
+        int countOne = generateMoves(player, movesOne);
+        for (int i = 0; i < countOne; i++) {
+            if (Move.isSingleMove(movesOne[i])) {
+                turns.add(Turn.encode(movesOne[i]));
+            }
+        }
+        int fleet = player == Color.GOLD ? Piece.GOLD_FLEET : Piece.SILVER_FLEET;
+        for (int i = 0; i < countOne; i++) {
+            int one = movesOne[i];
+            if (Move.isSingleMove(one)) {
+                continue;
+            }
+            makeMove(one);
+            if (getResult() != Result.NONE) {
+                turns.add(Turn.encode(one));
                 undoMove(one);
+                continue;
+            }
+            // only motion moves of the other ships are possible as second move
+            int countTwo = generateMotionMoves(fleet, Move.getTo(one), movesTwo);
+            for (int j = 0; j < countTwo; j++) {
+                // independent moves in the other order reach the same position
+                if (Turn.isCanonical(one, movesTwo[j])) {
+                    turns.add(Turn.encode(one, movesTwo[j]));
+                }
             }
+            undoMove(one);
         }
-        return turns;
     }
 
     /**
@@ -174,14 +325,260 @@ public class Board implements Cloneable {
      */
 
     public ArrayList<Move> getAllPossibleMoves(Color player) {
-        ArrayList<Move> moves = new ArrayList<>();
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (isPieceOwnedBy(board[i][j], player)) {
-                    moves.addAll(board[i][j].getPiece().enumerateAllPossibleMoves(this, i, j));
+        int[] moves = new int[MAX_MOVES];
+        int count = generateMoves(player, moves);
+        ArrayList<Move> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(toMove(moves[i]));
+        }
+        return list;
+    }
+
+    /**
+     * Write all possible moves a player can do in this board position into a buffer (encoded as int, see Move)
+     * @param player player whose moves are regarded
+     * @param moves buffer for the moves, must hold at least MAX_MOVES moves
+     * @return number of moves
+     */
+    public int generateMoves(Color player, int[] moves) {
+        int count = 0;
+        long[] own = colors[player.ordinal()];
+        for (int w = 0; w < 2; w++) {
+            long bits = own[w];
+            while (bits != 0) {
+                int sq = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                count = addPossibleMoves(sq, moves, count);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write all captures of a player and the flagship moves which reach the edge of the board into a buffer
+     * (encoded as int, see Move). These are the moves searched by the quiescence search.
+     * @param player player whose moves are regarded
+     * @param moves buffer for the moves, must hold at least MAX_MOVES moves
+     * @return number of moves
+     */
+    public int generateTacticalMoves(Color player, int[] moves) {
+        int count = 0;
+        long[] own = colors[player.ordinal()];
+        long[] enemy = colors[player.ordinal() ^ 1];
+        for (int w = 0; w < 2; w++) {
+            long bits = own[w];
+            while (bits != 0) {
+                int sq = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                long[] diagonals = BitBoard.DIAGONALS[sq];
+                for (int v = 0; v < 2; v++) {
+                    long targets = diagonals[v] & enemy[v];
+                    while (targets != 0) {
+                        int to = (v << 6) + Long.numberOfTrailingZeros(targets);
+                        targets &= targets - 1;
+                        moves[count++] = Move.encode(sq, to, getPieceType(to), true);
+                    }
                 }
             }
-        return moves;
+        }
+        if (flagship >= 0 && PIECES[Piece.FLAGSHIP].getOwner() == player) {
+            for (int direction = 0; direction < BitBoard.STEPS.length; direction++) {
+                // the edge is reached if no piece is on the ray
+                int end = BitBoard.rayEnd(direction, flagship);
+                if (end >= 0 && BitBoard.firstBlocker(direction, flagship, occupied) < 0) {
+                    moves[count++] = Move.encode(flagship, end, -1, true);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write all motion moves of the pieces of one type into a buffer (encoded as int, see Move)
+     * @param type piece type
+     * @param excluded square of a piece which is not moved (-1 if all pieces may move)
+     * @param moves buffer for the moves, must hold at least MAX_MOVES moves
+     * @return number of moves
+     */
+    public int generateMotionMoves(int type, int excluded, int[] moves) {
+        int count = 0;
+        long[] own = pieces[type];
+        for (int w = 0; w < 2; w++) {
+            long bits = own[w];
+            while (bits != 0) {
+                int sq = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (sq != excluded) {
+                    count = addMotionMoves(sq, false, moves, count);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get all possible moves of the piece on a tile
+     * @param x 1st coordinate of tile
+     * @param y 2nd coordinate of tile
+     * @return ArrayList of all possible moves
+     */
+    public ArrayList<Move> getPossibleMoves(int x, int y) {
+        int[] moves = new int[MAX_MOVES];
+        int count = generatePieceMoves(x, y, moves);
+        ArrayList<Move> list = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            list.add(toMove(moves[i]));
+        }
+        return list;
+    }
+
+    /**
+     * Write all possible moves of the piece on a tile into a buffer (encoded as int, see Move)
+     * @param x 1st coordinate of tile
+     * @param y 2nd coordinate of tile
+     * @param moves buffer for the moves, must hold at least MAX_MOVES moves
+     * @return number of moves
+     */
+    public int generatePieceMoves(int x, int y, int[] moves) {
+        return addPossibleMoves(BitBoard.square(x, y), moves, 0);
+    }
+
+    /**
+     * Add capture moves and motion moves of the piece on a square to a buffer
+     * @param sq square of the piece
+     * @param moves buffer for the moves
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
+     */
+    private int addPossibleMoves(int sq, int[] moves, int count) {
+        int type = getPieceType(sq);
+        // capture moves: diagonal neighbours occupied by the opponent
+        long[] diagonals = BitBoard.DIAGONALS[sq];
+        long[] enemy = colors[PIECES[type].getOwner().ordinal() ^ 1];
+        for (int w = 0; w < 2; w++) {
+            long targets = diagonals[w] & enemy[w];
+            while (targets != 0) {
+                int to = (w << 6) + Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                moves[count++] = Move.encode(sq, to, getPieceType(to), true);
+            }
+        }
+        return addMotionMoves(sq, type == Piece.FLAGSHIP, moves, count);
+    }
+
+    /**
+     * Add motion moves of the piece on a square to a buffer: move in all directions as long as no other piece
+     * is encountered
+     * @param sq square of the piece
+     * @param singleMove true for flagship moves
+     * @param moves buffer for the moves
+     * @param count number of moves already in the buffer
+     * @return new number of moves in the buffer
+     */
+    private int addMotionMoves(int sq, boolean singleMove, int[] moves, int count) {
+        for (int direction = 0; direction < BitBoard.STEPS.length; direction++) {
+            int end = BitBoard.rayEnd(direction, sq);
+            if (end < 0) {
+                continue;
+            }
+            // moves end in front of the first piece on the ray or at the edge
+            int step = BitBoard.STEPS[direction];
+            int blocker = BitBoard.firstBlocker(direction, sq, occupied);
+            int stop = blocker >= 0 ? blocker : end + step;
+            for (int to = sq + step; to != stop; to += step) {
+                moves[count++] = Move.encode(sq, to, -1, singleMove);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Translate an encoded move into a move object (the move has to be possible in this position)
+     * @param move encoded move
+     * @return move
+     */
+    public Move toMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int captured = Move.getCapturedType(move);
+        return new Move(PIECES[getPieceType(from)], BitBoard.row(from), BitBoard.column(from),
+                captured < 0 ? null : PIECES[captured], BitBoard.row(to), BitBoard.column(to), Move.isSingleMove(move));
+    }
+
+    /**
+     * Translate an encoded turn into a turn object (the turn has to be possible in this position)
+     * @param turn encoded turn
+     * @return turn
+     */
+    public Turn toTurn(int turn) {
+        Move one = toMove(Turn.getFirstMove(turn));
+        if (!Turn.hasTwoMoves(turn)) {
+            return new Turn(one);
+        }
+        return new Turn(one, toMove(Turn.getSecondMove(turn)));
+    }
+
+    /**
+     * Check whether an encoded turn is possible in this position, e.g. a turn taken from the transposition table
+     * or a killer move of another position
+     * @param turn encoded turn
+     * @param player player to move
+     * @return true if generateTurns would generate the turn
+     */
+    public boolean isPossibleTurn(int turn, Color player) {
+        int one = Turn.getFirstMove(turn);
+        if (turn == Turn.NONE || !isPossibleMove(one, player, -1)) {
+            return false;
+        }
+        if (Move.isSingleMove(one)) {
+            return !Turn.hasTwoMoves(turn);
+        }
+        makeMove(one);
+        boolean possible;
+        if (getResult() != Result.NONE) {
+            possible = !Turn.hasTwoMoves(turn);
+        } else {
+            int two = Turn.getSecondMove(turn);
+            possible = Turn.hasTwoMoves(turn) && !Move.isSingleMove(two) && isPossibleMove(two, player, Move.getTo(one));
+        }
+        undoMove(one);
+        return possible;
+    }
+
+    /**
+     * Check whether an encoded move is possible in this position
+     * @param move encoded move
+     * @param player player to move
+     * @param excluded square of a piece which must not move (-1 if all pieces may move)
+     * @return true if the move is possible
+     */
+    private boolean isPossibleMove(int move, Color player, int excluded) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        if (from >= BitBoard.SQUARES || to >= BitBoard.SQUARES || from == to || from == excluded
+                || !BitBoard.isSet(colors[player.ordinal()], from)) {
+            return false;
+        }
+        int type = getPieceType(from);
+        int captured = Move.getCapturedType(move);
+        if (captured >= 0) {
+            return Move.isSingleMove(move) && BitBoard.isSet(BitBoard.DIAGONALS[from], to) && getPieceType(to) == captured
+                    && PIECES[captured].getOwner() != player;
+        }
+        if (Move.isSingleMove(move) != (type == Piece.FLAGSHIP) || BitBoard.isSet(occupied, to)) {
+            return false;
+        }
+        int direction;
+        if (BitBoard.row(from) == BitBoard.row(to)) {
+            direction = to > from ? BitBoard.EAST : BitBoard.WEST;
+        } else if (BitBoard.column(from) == BitBoard.column(to)) {
+            direction = to > from ? BitBoard.SOUTH : BitBoard.NORTH;
+        } else {
+            return false;
+        }
+        // the path is clear if the first piece on the ray is behind the target square
+        int blocker = BitBoard.firstBlocker(direction, from, occupied);
+        return blocker < 0 || BitBoard.distance(from, blocker) > BitBoard.distance(from, to);
     }
 
     /**
@@ -190,9 +587,18 @@ public class Board implements Cloneable {
      */
 
     public void makeTurn(Turn t) {
-        makeMove(t.getFirstMove());
-        if (t.hasTwoMoves()) {
-            makeMove(t.getSecondMove());
+        makeTurn(t.getCode());
+    }
+
+    /**
+     * Make an encoded turn
+     * @param turn turn to be done
+     */
+    public void makeTurn(int turn) {
+        pushHistory(Move.getCapturedType(Turn.getFirstMove(turn)) >= 0);
+        makeMove(Turn.getFirstMove(turn));
+        if (Turn.hasTwoMoves(turn)) {
+            makeMove(Turn.getSecondMove(turn));
         }
     }
 
@@ -202,10 +608,91 @@ public class Board implements Cloneable {
      */
 
     public void undoTurn(Turn t) {
-        if (t.hasTwoMoves()) {
-            undoMove(t.getSecondMove());
+        undoTurn(t.getCode());
+    }
+
+    /**
+     * Undo an encoded turn
+     * @param turn turn to be undone
+     */
+    public void undoTurn(int turn) {
+        if (Turn.hasTwoMoves(turn)) {
+            undoMove(Turn.getSecondMove(turn));
         }
-        undoMove(t.getFirstMove());
+        undoMove(Turn.getFirstMove(turn));
+        popHistory();
+    }
+
+    /**
+     * Pass: the player to move doesn't make a turn (the position is added to the history like after a turn)
+     */
+    public void passTurn() {
+        pushHistory(false);
+    }
+
+    /**
+     * Undo a pass
+     */
+    public void undoPass() {
+        popHistory();
+    }
+
+    /**
+     * Save the key of the current position before a turn or pass
+     * @param capture true if the turn captures a piece (the positions before can't be repeated)
+     */
+    private void pushHistory(boolean capture) {
+        if (historySize == hashHistory.length) {
+            hashHistory = Arrays.copyOf(hashHistory, 2 * historySize);
+            reversibleHistory = Arrays.copyOf(reversibleHistory, 2 * historySize);
+        }
+        hashHistory[historySize] = hash;
+        reversibleHistory[historySize] = reversibleTurns;
+        historySize++;
+        reversibleTurns = capture ? 0 : reversibleTurns + 1;
+    }
+
+    private void popHistory() {
+        historySize--;
+        reversibleTurns = reversibleHistory[historySize];
+    }
+
+    /**
+     * Get Zobrist key of the position (without the player to move)
+     * @return hash value of the pieces
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Count earlier occurrences of the current position with the same player to move, i.e. an even number of
+     * turns (or passes) ago. Only turns since the last capture are regarded.
+     * @return number of repetitions
+     */
+    public int countRepetitions() {
+        int count = 0;
+        int oldest = historySize - Math.min(reversibleTurns, historySize);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (hashHistory[i] == hash) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Check whether the current position occurred before with the same player to move
+     * @return true for repeated positions
+     */
+    public boolean isRepetition() {
+        int oldest = historySize - Math.min(reversibleTurns, historySize);
+        for (int i = historySize - 2; i >= oldest; i -= 2) {
+            if (hashHistory[i] == hash) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -213,9 +700,23 @@ public class Board implements Cloneable {
      * @param m move to be done
      */
     public void makeMove(Move m) {
-        Piece piece = m.getPiece();
-        board[m.getX2()][m.getY2()].setPiece(piece);
-        board[m.getX1()][m.getY1()].emptyTile();
+        makeMove(m.getCode());
+    }
+
+    /**
+     * Make an encoded move
+     * @param move move to be done
+     */
+    public void makeMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int type = getPieceType(from);
+        int captured = Move.getCapturedType(move);
+        if (captured >= 0) {
+            removePiece(captured, to);
+        }
+        removePiece(type, from);
+        putPiece(type, to);
     }
 
     /**
@@ -223,10 +724,75 @@ public class Board implements Cloneable {
      * @param m move to be undone
      */
     public void undoMove(Move m) {
-        Piece previouslyCaptured = m.getCapturedPiece();
-        Piece previouslyMoved = m.getPiece();
-        board[m.getX1()][m.getY1()].setPiece(previouslyMoved);
-        board[m.getX2()][m.getY2()].setPiece(previouslyCaptured);
+        undoMove(m.getCode());
+    }
+
+    /**
+     * Undo an encoded move
+     * @param move move to be undone
+     */
+    public void undoMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int type = getPieceType(to);
+        int captured = Move.getCapturedType(move);
+        removePiece(type, to);
+        putPiece(type, from);
+        if (captured >= 0) {
+            putPiece(captured, to);
+        }
+    }
+
+    private void putPiece(int type, int sq) {
+        BitBoard.set(pieces[type], sq);
+        BitBoard.set(colors[PIECES[type].getOwner().ordinal()], sq);
+        BitBoard.set(occupied, sq);
+        hash ^= Zobrist.piece(type, sq);
+        material[PIECES[type].getOwner().ordinal()] += PIECES[type].getScore();
+        if (type == Piece.FLAGSHIP) {
+            setFlagship(sq);
+            silverDistance = sumDistances(sq);
+        } else if (type == Piece.SILVER_FLEET) {
+            silverRows[BitBoard.row(sq)]++;
+            silverColumns[BitBoard.column(sq)]++;
+            if (flagship >= 0) {
+                silverDistance += BitBoard.distance(sq, flagship);
+            }
+        }
+    }
+
+    private void removePiece(int type, int sq) {
+        BitBoard.clear(pieces[type], sq);
+        BitBoard.clear(colors[PIECES[type].getOwner().ordinal()], sq);
+        BitBoard.clear(occupied, sq);
+        hash ^= Zobrist.piece(type, sq);
+        material[PIECES[type].getOwner().ordinal()] -= PIECES[type].getScore();
+        if (type == Piece.FLAGSHIP) {
+            // the distances are computed again when the flagship is placed
+            setFlagship(-1);
+        } else if (type == Piece.SILVER_FLEET) {
+            silverRows[BitBoard.row(sq)]--;
+            silverColumns[BitBoard.column(sq)]--;
+            if (flagship >= 0) {
+                silverDistance -= BitBoard.distance(sq, flagship);
+            }
+        }
+    }
+
+    /**
+     * Sum up the Manhattan distances of all silver ships to a square by the number of silver ships in every row
+     * and column
+     * @param sq square
+     * @return sum of distances
+     */
+    private int sumDistances(int sq) {
+        int x = BitBoard.row(sq);
+        int y = BitBoard.column(sq);
+        int sum = 0;
+        for (int i = 0; i < BOARD_SIZE; i++) {
+            sum += silverRows[i] * Math.abs(i - x) + silverColumns[i] * Math.abs(i - y);
+        }
+        return sum;
     }
 
     /**
@@ -237,15 +803,34 @@ public class Board implements Cloneable {
 
     public int countAllControlledSquares(Color player) {
         int count = 0;
-        for (int i = 0; i < BOARD_SIZE; i++)
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (isPieceOwnedBy(board[i][j], player)) {
-                    count += board[i][j].getPiece().countControlledSquares(this, i, j);
-                }
+        long[] own = colors[player.ordinal()];
+        for (int w = 0; w < 2; w++) {
+            long bits = own[w];
+            while (bits != 0) {
+                int sq = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                count += countControlledSquares(sq, own);
             }
+        }
         return count;
     }
 
+    /**
+     * Count tiles diagonal to a tile which are empty or occupied by the opponent
+     * @param x 1st coordinate of tile
+     * @param y 2nd coordinate of tile
+     * @param owner color of player
+     * @return number of controlled tiles (1-4)
+     */
+    public int countControlledSquares(int x, int y, Color owner) {
+        return countControlledSquares(BitBoard.square(x, y), colors[owner.ordinal()]);
+    }
+
+    private int countControlledSquares(int sq, long[] own) {
+        long[] diagonals = BitBoard.DIAGONALS[sq];
+        return Long.bitCount(diagonals[0] & ~own[0]) + Long.bitCount(diagonals[1] & ~own[1]);
+    }
+
     /**
      * Calculate the average Manhattan distance to the flagship for silver ships (
      * ab: evaluation function feature)
@@ -253,16 +838,19 @@ public class Board implements Cloneable {
      * @return normalized average distance to flagship
      */
     public int distanceToFlagship(int[] locFlagship) {
-        float dist=0;
-        int silver_pieces=0;
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            for (int j = 0; j < BOARD_SIZE; j++) {
-                if (isPieceOwnedBy(board[i][j], Color.SILVER)) {
-                    dist += Math.abs(i-locFlagship[0]) + Math.abs(j-locFlagship[1]);
-                    silver_pieces+=1;
-                }
-            }
-        }
+        return distanceToFlagship(BitBoard.square(locFlagship[0], locFlagship[1]));
+    }
+
+    /**
+     * Calculate the average Manhattan distance to the flagship for silver ships (
+     * ab: evaluation function feature)
+     * @param flagship square of the flagship
+     * @return normalized average distance to flagship
+     */
+    public int distanceToFlagship(int flagship) {
+        // the sum of distances to the current flagship is kept up to date by every move
+        float dist = flagship == this.flagship ? silverDistance : sumDistances(flagship);
+        int silver_pieces = BitBoard.count(pieces[Piece.SILVER_FLEET]);
         // maximum distance for every piece -> 10+10=20 (100: highest score, 0:lowest score)
         return (int)(100-((dist/silver_pieces)*5));
     }
@@ -275,24 +863,16 @@ public class Board implements Cloneable {
      */
 
     public int piecesToBoarder(int[] locFlagship) {
-        int pieces_x = -1;
-        int pieces_y = -1;
         int countNeighbors=0;
         int x = locFlagship[0];
         int y = locFlagship[1];
-        for (int i = 0; i < BOARD_SIZE; i++) {
-            if (board[x][i].isOccupied()) {
-                pieces_x +=1;
-            }
-            if (board[i][y].isOccupied()) {
-                pieces_y +=1;
-            }
-        }
+        int pieces_x = BitBoard.countBoth(occupied, BitBoard.ROWS[x]) - 1;
+        int pieces_y = BitBoard.countBoth(occupied, BitBoard.COLUMNS[y]) - 1;
         for (int i=0;i<2;i++){
-            if (isPieceOwnedBy(board[x+i][y], Color.SILVER)){
+            if (isOnBoard(x+i, y) && isPieceOwnedBy(x+i, y, Color.SILVER)){
                 countNeighbors +=1;
             }
-            if (isPieceOwnedBy(board[x][y+1], Color.SILVER)){
+            if (isOnBoard(x, y+1) && isPieceOwnedBy(x, y+1, Color.SILVER)){
                 countNeighbors +=1;
             }
         }
@@ -308,32 +888,26 @@ public class Board implements Cloneable {
      */
 
     public int flagshipFreedom (int [] locFlagship){
-        int x = locFlagship[0];
-        int y = locFlagship[1];
+        return flagshipFreedom(BitBoard.square(locFlagship[0], locFlagship[1]));
+    }
+
+    /**
+     * Calculate the number of tiles that no silver ship is encountered from the flagship
+     * (ab: evaluation function feature)
+     * @param flagship square of the flagship
+     * @return normalized score
+     */
+    public int flagshipFreedom(int flagship) {
         int freedom=0;
-        for (int i = x; i >= 0; i--) {
-            if (isPieceOwnedBy(board[i][y], Color.SILVER)) {
-                break;
-            }
-            freedom+= 1;
-        }
-        for (int i = x; i < BOARD_SIZE; i++) {
-            if (isPieceOwnedBy(board[i][y], Color.SILVER)) {
-                break;
-            }
-            freedom+= 1;
-        }
-        for (int i = y; i >= 0; i--) {
-            if (isPieceOwnedBy(board[x][i], Color.SILVER)) {
-                break;
-            }
-            freedom+= 1;
-        }
-        for (int i = y; i < BOARD_SIZE; i++) {
-            if (isPieceOwnedBy(board[x][i], Color.SILVER)) {
-                break;
+        for (int direction = 0; direction < BitBoard.STEPS.length; direction++) {
+            // tiles up to the first silver ship on the ray or up to the edge (the flagship tile counts as well)
+            int blocker = BitBoard.firstBlocker(direction, flagship, pieces[Piece.SILVER_FLEET]);
+            if (blocker >= 0) {
+                freedom += BitBoard.distance(flagship, blocker);
+            } else {
+                int end = BitBoard.rayEnd(direction, flagship);
+                freedom += 1 + (end >= 0 ? BitBoard.distance(flagship, end) : 0);
             }
-            freedom+= 1;
         }
         // normalized score maximum freedom 10+10=20 (100: best, 0:worst)
         return 5*freedom;
@@ -344,23 +918,6 @@ public class Board implements Cloneable {
      * @return new board having same position as original board
      */
     public Board clone() {
-        Tile[][] tilesCopy = new Tile[BOARD_SIZE][BOARD_SIZE];
-        for (int x = 0; x < BOARD_SIZE; x++) {
-            for (int y = 0; y < BOARD_SIZE; y++) {
-                tilesCopy[x][y] = cloneTile(board[x][y]);
-            }
-        }
-        return new Board(tilesCopy);
-    }
-
-    /**
-     * Clone tiles
-     * @param original tile to be cloned
-     * @return new tile having same attributes as original tile
-     */
-    private Tile cloneTile(Tile original) {
-        Tile copy = new Tile();
-        copy.setPiece(original.getPiece());
-        return copy;
+        return new Board(this);
     }
-}
\ No newline at end of file
+}
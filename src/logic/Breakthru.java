@@ -10,6 +10,8 @@ import java.util.List;
  * Class controls gameplay and merges logic and GUI activities
  */
 public class Breakthru {
+    // the game is a draw when the same position occurs this many times with the same player to move
+    private static final int REPETITIONS_FOR_DRAW = 3;
     // total processing time of AI player
     public static long timeAI;
     private final Board board;
@@ -17,6 +19,8 @@ public class Breakthru {
     private final GamePresenter presenter;
     private final List<Player> players;
     private boolean previousPlayerHadNoMove = false;
+    // game clock, null for games without time control
+    private Clock clock;
 
     /**
      * Initialize game
@@ -35,10 +39,21 @@ public class Breakthru {
         players.add(silver);
     }
 
+    /**
+     * Play with time control: a player whose time runs out loses
+     * @param clock game clock with the time of both players
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
     /**
      * Starts one game.
      */
     public void play() {
+        for (Player p : players) {
+            p.newGame();
+        }
         presenter.presentBoard(board.clone());
         while (true) {
             Result result = playRound();
@@ -47,6 +62,9 @@ public class Breakthru {
                 break;
             }
         }
+        for (Player p : players) {
+            p.endGame();
+        }
     }
 
     /**
@@ -58,14 +76,23 @@ public class Breakthru {
             System.out.println(p.getColor());
             // start measure time AI player
             long start = System.currentTimeMillis();
+            if (clock != null) {
+                p.updateClock(clock.getRemaining(p.getColor()), clock.getIncrement());
+                clock.start();
+            }
             Turn turn = p.getNextTurn(board);
             System.out.println(turn);
+            if (clock != null && !clock.stop(p.getColor())) {
+                System.out.println(p.getColor() + " lost on time");
+                return p.getColor() == Color.GOLD ? Result.SILVER_WON : Result.GOLD_WON;
+            }
             // if both players didn't move -> declare it a draw
             if (turn == null) {
                 if (previousPlayerHadNoMove) {
                     return Result.TIE;
                 }
                 previousPlayerHadNoMove = true;
+                board.passTurn();
                 continue;
             }
             previousPlayerHadNoMove = false;
@@ -78,6 +105,10 @@ public class Breakthru {
             if (p==AI){
                 timeAI += System.currentTimeMillis()-start;
             }
+            // endless shuffling of ships
+            if (result == Result.NONE && board.countRepetitions() >= REPETITIONS_FOR_DRAW - 1) {
+                return Result.TIE;
+            }
             if (result != Result.NONE) {
                 return result;
             }
@@ -0,0 +1,62 @@
+package logic;
+
+/**
+ * Game clock with a base time and an increment: the time a player needs for a turn is subtracted from the
+ * remaining time of the player, the increment is added after every turn. A player whose time runs out loses.
+ */
+public class Clock {
+    private final long increment;
+    // remaining time by color ordinal (ms)
+    private final long[] remaining = new long[2];
+    // start of the current turn (System.nanoTime)
+    private long turnStart;
+
+    /**
+     * Initialize clock
+     * @param baseTime time of each player for the whole game (ms)
+     * @param increment time added after every turn (ms)
+     */
+    public Clock(long baseTime, long increment) {
+        if (baseTime <= 0 || increment < 0) {
+            throw new IllegalArgumentException("Invalid time control: base time " + baseTime + ", increment " + increment);
+        }
+        this.increment = increment;
+        remaining[0] = baseTime;
+        remaining[1] = baseTime;
+    }
+
+    /**
+     * Start measuring the time of a turn
+     */
+    public void start() {
+        turnStart = System.nanoTime();
+    }
+
+    /**
+     * Stop measuring the time of a turn and update the remaining time of the player
+     * @param player player who made the turn
+     * @return false if the time of the player ran out
+     */
+    public boolean stop(Color player) {
+        long used = (System.nanoTime() - turnStart) / 1000000;
+        remaining[player.ordinal()] -= used;
+        if (remaining[player.ordinal()] < 0) {
+            return false;
+        }
+        remaining[player.ordinal()] += increment;
+        return true;
+    }
+
+    /**
+     * Get remaining time of a player
+     * @param player player
+     * @return remaining time (ms)
+     */
+    public long getRemaining(Color player) {
+        return remaining[player.ordinal()];
+    }
+
+    public long getIncrement() {
+        return increment;
+    }
+}
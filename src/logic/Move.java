@@ -3,16 +3,17 @@ package logic;
 import pieces.Piece;
 
 /**
- * Used to create "move" objects which save information of one piece moving from one location to another
+ * Used to create "move" objects which save information of one piece moving from one location to another.
+ * A move is identified by its int code: bits 0-6 original square, bits 7-13 new square (see BitBoard),
+ * bits 14-15 type of the captured piece + 1 (0: no capture) and bit 16 single move flag. The search only
+ * passes these codes around, move objects are created for players and the GUI.
  */
 public class Move {
+    // encoded move representing no move
+    public static final int NONE = 0;
+
     private final Piece piece;
-    private final int x1;
-    private final int y1;
-    private final int x2;
-    private final int y2;
-    private boolean singleMove = false;
-    private Piece capturedPiece = null;
+    private final int code;
 
     /**
      * Initialize capture or flagship moves
@@ -27,12 +28,8 @@ public class Move {
      */
     public Move(Piece piece, int x1, int y1, Piece capturedPiece, int x2, int y2, boolean singleMove) {
         this.piece = piece;
-        this.capturedPiece = capturedPiece;
-        this.x1 = x1;
-        this.y1 = y1;
-        this.x2 = x2;
-        this.y2 = y2;
-        this.singleMove = singleMove;
+        this.code = encode(BitBoard.square(x1, y1), BitBoard.square(x2, y2),
+                capturedPiece == null ? -1 : capturedPiece.getType(), singleMove);
     }
 
     /**
@@ -45,31 +42,27 @@ public class Move {
      * @param y2    new position: 2nd coordinate
      */
     public Move(Piece piece, int x1, int y1, int x2, int y2) {
-        this.piece = piece;
-        this.x1 = x1;
-        this.y1 = y1;
-        this.x2 = x2;
-        this.y2 = y2;
+        this(piece, x1, y1, null, x2, y2, false);
     }
 
     public int getX1() {
-        return x1;
+        return BitBoard.row(getFrom(code));
     }
 
     public int getX2() {
-        return x2;
+        return BitBoard.row(getTo(code));
     }
 
     public int getY1() {
-        return y1;
+        return BitBoard.column(getFrom(code));
     }
 
     public int getY2() {
-        return y2;
+        return BitBoard.column(getTo(code));
     }
 
     public boolean isSingleMove() {
-        return singleMove;
+        return isSingleMove(code);
     }
 
     public Piece getPiece() {
@@ -77,13 +70,76 @@ public class Move {
     }
 
     public Piece getCapturedPiece() {
-        return capturedPiece;
+        int captured = getCapturedType(code);
+        return captured < 0 ? null : Board.getPieceOfType(captured);
+    }
+
+    /**
+     * Get int code of move
+     * @return encoded move
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Encode move as int
+     * @param from original square
+     * @param to new square
+     * @param capturedType type of the captured piece or -1
+     * @param singleMove boolean value
+     * @return encoded move
+     */
+    public static int encode(int from, int to, int capturedType, boolean singleMove) {
+        return from | (to << 7) | ((capturedType + 1) << 14) | (singleMove ? 1 << 16 : 0);
+    }
+
+    public static int getFrom(int move) {
+        return move & 0x7F;
+    }
+
+    public static int getTo(int move) {
+        return (move >>> 7) & 0x7F;
+    }
+
+    public static int getCapturedType(int move) {
+        return ((move >>> 14) & 3) - 1;
+    }
+
+    public static boolean isSingleMove(int move) {
+        return (move & (1 << 16)) != 0;
+    }
+
+    /**
+     * Check whether a motion move passes a square
+     * @param move encoded motion move
+     * @param sq square index
+     * @return true if the square is between the original and the new square or is the new square
+     */
+    public static boolean isOnPath(int move, int sq) {
+        int from = getFrom(move);
+        int to = getTo(move);
+        boolean line = BitBoard.row(from) == BitBoard.row(to) ? BitBoard.row(sq) == BitBoard.row(from)
+                : BitBoard.column(sq) == BitBoard.column(from);
+        // squares of a row or column have increasing indices, so sq is on the path if it lies between the squares
+        return line && sq != from && (sq - from) * (sq - to) <= 0;
+    }
+
+    /**
+     * Translate encoded move into chess notation
+     * @param move encoded move
+     * @return notation of move
+     */
+    public static String toString(int move) {
+        int from = getFrom(move);
+        int to = getTo(move);
+        return Columns.values()[BitBoard.column(from)] + Integer.toString(Board.BOARD_SIZE - BitBoard.row(from))
+                + Columns.values()[BitBoard.column(to)] + (Board.BOARD_SIZE - BitBoard.row(to));
     }
 
     @Override
     public String toString() {
-        return Columns.values()[this.y1] + Integer.toString(Board.BOARD_SIZE - this.x1)
-                + Columns.values()[this.y2] + (Board.BOARD_SIZE - this.x2);
+        return toString(code);
     }
 
     @Override
@@ -94,10 +150,13 @@ public class Move {
         if (m == null || m.getClass() != this.getClass()) {
             return false;
         }
-        // moves are equal if all of their attributes are equal
-        return (((((Move) m).getX1() == this.x1) && (((Move) m).getX2() == this.x2) && (((Move) m).getY1() == this.y1) && (((Move) m).getY2() == this.y2) &&
-                (((Move) m).isSingleMove() == this.isSingleMove()) && (((Move) m).getPiece() == getPiece())
-                && (((Move) m).getCapturedPiece() == getCapturedPiece())));
+        // moves are equal if their squares, captured piece and single move flag are equal
+        return ((Move) m).code == code;
+    }
+
+    @Override
+    public int hashCode() {
+        return code;
     }
 
-}
\ No newline at end of file
+}
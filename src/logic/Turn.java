@@ -1,12 +1,18 @@
 package logic;
 
 /**
- * Used to create "turn" objects which represent one round for one player (2 motion moves, 1 capture or flagship move)
+ * Used to create "turn" objects which represent one round for one player (2 motion moves, 1 capture or flagship move).
+ * A turn is identified by its int code: bits 0-16 first move and bits 17-30 second move (0: no second move),
+ * see Move for the encoding of moves. A second move is always a motion move, so it fits into 14 bits.
  */
 public class Turn implements Comparable<Turn> {
+    // encoded turn representing no turn
+    public static final int NONE = 0;
+
     private final Move m1;
     private Move m2;
     private boolean twoMoves = false;
+    private final int code;
 
     /**
      * Initialize turn made up of 2 motion moves
@@ -18,6 +24,7 @@ public class Turn implements Comparable<Turn> {
         this.m1 = m1;
         this.m2 = m2;
         this.twoMoves = true;
+        this.code = encode(m1.getCode(), m2.getCode());
     }
 
     /**
@@ -27,6 +34,7 @@ public class Turn implements Comparable<Turn> {
      */
     public Turn(Move m1) {
         this.m1 = m1;
+        this.code = encode(m1.getCode());
     }
 
     public Move getFirstMove() {
@@ -41,12 +49,75 @@ public class Turn implements Comparable<Turn> {
         return twoMoves;
     }
 
+    /**
+     * Get int code of turn
+     * @return encoded turn
+     */
+    public int getCode() {
+        return code;
+    }
+
+    public static int encode(int move) {
+        return move;
+    }
+
+    public static int encode(int m1, int m2) {
+        return m1 | (m2 << 17);
+    }
+
+    public static int getFirstMove(int turn) {
+        return turn & 0x1FFFF;
+    }
+
+    public static int getSecondMove(int turn) {
+        return turn >>> 17;
+    }
+
+    public static boolean hasTwoMoves(int turn) {
+        return (turn >>> 17) != 0;
+    }
+
+    /**
+     * Check whether a turn of two motion moves is in canonical order. Two moves which don't block each other
+     * reach the same position in both orders: only the order which moves the ship with the lower square first
+     * is canonical. If the first move opens the path of the second move or the second move could block the
+     * first one, only this order is possible and it is canonical.
+     * @param first encoded first move
+     * @param second encoded second move
+     * @return false if the turn with swapped moves is possible and reaches the same position
+     */
+    public static boolean isCanonical(int first, int second) {
+        return Move.getFrom(first) < Move.getFrom(second) || Move.isOnPath(second, Move.getFrom(first))
+                || Move.isOnPath(first, Move.getTo(second));
+    }
+
+    /**
+     * Get canonical order of a turn (see isCanonical)
+     * @param turn encoded turn
+     * @return turn reaching the same position whose moves are in canonical order
+     */
+    public static int canonical(int turn) {
+        if (hasTwoMoves(turn) && !isCanonical(getFirstMove(turn), getSecondMove(turn))) {
+            return encode(getSecondMove(turn), getFirstMove(turn));
+        }
+        return turn;
+    }
+
+    /**
+     * Translate encoded turn into chess notation
+     * @param turn encoded turn
+     * @return notation of turn
+     */
+    public static String toString(int turn) {
+        if (hasTwoMoves(turn)) {
+            return Move.toString(getFirstMove(turn)) + " " + Move.toString(getSecondMove(turn));
+        }
+        return Move.toString(getFirstMove(turn));
+    }
+
     @Override
     public String toString() {
-        if (hasTwoMoves()) {
-            return m1.toString() + " " + m2.toString();
-        }
-        return m1.toString();
+        return toString(code);
     }
 
     @Override
@@ -58,14 +129,12 @@ public class Turn implements Comparable<Turn> {
             return false;
         }
         // turns are equal if they contain the same moves
-        if (((Turn) o).getFirstMove().equals(getFirstMove())) {
-            if (!((Turn) o).hasTwoMoves() && !this.hasTwoMoves()) {
-                return true;
-            }
-            return ((Turn) o).getSecondMove().equals(getSecondMove());
-        }
-        return false;
+        return ((Turn) o).code == code;
+    }
 
+    @Override
+    public int hashCode() {
+        return code;
     }
 
     /**
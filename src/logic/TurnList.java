@@ -0,0 +1,43 @@
+package logic;
+
+import java.util.Arrays;
+
+/**
+ * Reusable buffer of turns encoded as int (see Turn). The buffer only grows, so once it is large enough
+ * filling it again doesn't allocate memory.
+ */
+public class TurnList {
+    private int[] turns;
+    private int size = 0;
+
+    public TurnList() {
+        this(1024);
+    }
+
+    /**
+     * Initialize buffer
+     * @param capacity initial number of turns the buffer can hold
+     */
+    public TurnList(int capacity) {
+        turns = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int turn) {
+        if (size == turns.length) {
+            turns = Arrays.copyOf(turns, 2 * size);
+        }
+        turns[size++] = turn;
+    }
+
+    public int get(int index) {
+        return turns[index];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,59 @@
+package logic;
+
+import java.util.Random;
+
+/**
+ * Zobrist keys of board positions: a random number for every piece type on every square, XORed together for all
+ * pieces of a position (see Board.getHash). The keys are generated from a fixed seed, so hash values are the same
+ * in every run.
+ */
+public final class Zobrist {
+    private static final long SEED = 20190611L;
+    private static final long[][] PIECES = new long[3][BitBoard.SQUARES];
+    // key of positions in which silver has to move
+    public static final long SILVER_TO_MOVE;
+    // keys of positions within a turn: the first move started and ended on these squares and the second move is
+    // pending
+    private static final long[] PENDING = new long[BitBoard.SQUARES];
+    private static final long[] PENDING_FROM = new long[BitBoard.SQUARES];
+
+    static {
+        Random random = new Random(SEED);
+        for (long[] keys : PIECES) {
+            for (int sq = 0; sq < keys.length; sq++) {
+                keys[sq] = random.nextLong();
+            }
+        }
+        SILVER_TO_MOVE = random.nextLong();
+        for (int sq = 0; sq < PENDING.length; sq++) {
+            PENDING[sq] = random.nextLong();
+        }
+        for (int sq = 0; sq < PENDING_FROM.length; sq++) {
+            PENDING_FROM[sq] = random.nextLong();
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Get key of a piece on a square
+     * @param type piece type
+     * @param sq square index
+     * @return random key
+     */
+    public static long piece(int type, int sq) {
+        return PIECES[type][sq];
+    }
+
+    /**
+     * Get key of a position waiting for the second move of a turn. Both squares of the first move are part of
+     * the key, because the second moves which are searched after it depend on them (see Turn.isCanonical).
+     * @param from square on which the first move started
+     * @param to square on which the first move ended (this ship can't move again)
+     * @return random key
+     */
+    public static long pending(int from, int to) {
+        return PENDING_FROM[from] ^ PENDING[to];
+    }
+}
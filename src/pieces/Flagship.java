@@ -18,4 +18,9 @@ public class Flagship extends Piece {
     public int getScore() {
         return 4;
     }
+
+    @Override
+    public int getType() {
+        return FLAGSHIP;
+    }
 }
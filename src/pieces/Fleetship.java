@@ -25,4 +25,13 @@ public class Fleetship extends Piece {
             return 2;
         }
     }
+
+    @Override
+    public int getType() {
+        if (getOwner() == Color.GOLD) {
+            return GOLD_FLEET;
+        } else {
+            return SILVER_FLEET;
+        }
+    }
 }
@@ -3,15 +3,18 @@ package pieces;
 import logic.Board;
 import logic.Color;
 import logic.Move;
-import logic.Tile;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 
 /**
  * Abstract class defining pieces and all of their possible movements
  */
 public abstract class Piece {
+    // piece types, used as index of the bitboards of a board
+    public static final int SILVER_FLEET = 0;
+    public static final int GOLD_FLEET = 1;
+    public static final int FLAGSHIP = 2;
+
     private final Color owner;
 
     public Piece(Color owner) {
@@ -23,7 +26,7 @@ public abstract class Piece {
     }
 
     protected Piece getPieceOnBoard(Board board, int x, int y) {
-        return board.getTile(x, y).getPiece();
+        return board.getPiece(x, y);
     }
 
     /**
@@ -35,92 +38,7 @@ public abstract class Piece {
      * @return list of moves
      */
     public ArrayList<Move> enumerateAllPossibleMoves(Board b, int x, int y) {
-        ArrayList<Move> moves = enumerateAllCaptureMoves(b, x, y);
-        moves.addAll(enumerateAllMotionMoves(b, x, y));
-        return moves;
-    }
-
-    /**
-     * Get list of all motion moves for a piece
-     *
-     * @param b current board position
-     * @param x piece 1st coordinate
-     * @param y piece 2nd coordinate
-     * @return list of moves
-     */
-    protected ArrayList<Move> enumerateAllMotionMoves(Board b, int x, int y) {
-        ArrayList<Move> moves = new ArrayList<>();
-        // move in all directions: add motion moves as long as no other piece is encountered
-        //motion move left
-        int i = x - 1;
-        while (addMotionMove(moves, b, x, y, i, y)) {
-            i--;
-        }
-
-        //motion move right
-        i = x + 1;
-        while (addMotionMove(moves, b, x, y, i, y)) {
-            i++;
-        }
-
-        //motion move down
-        i = y + 1;
-        while (addMotionMove(moves, b, x, y, x, i)) {
-            i++;
-        }
-
-        //motion move up
-        i = y - 1;
-        while (addMotionMove(moves, b, x, y, x, i)) {
-            i--;
-        }
-
-        return moves;
-    }
-
-    /**
-     * Check if tile new is free, if yes add motion move from original position to new position to move list
-     *
-     * @param moves list of already produced moves
-     * @param b     current board position
-     * @param x1    original position: 1st coordinate
-     * @param y1    original position: 2nd coordinate
-     * @param x2    new position: 1st coordinate
-     * @param y2    new position: 2nd coordinate
-     * @return boolean value if a valid motion move was added to the list
-     */
-    private boolean addMotionMove(ArrayList<Move> moves, Board b, int x1, int y1, int x2, int y2) {
-        if (b.isOnBoard(x2, y2)
-                && !b.getTile(x2, y2).isOccupied()) {
-            if (this instanceof Flagship) {
-                moves.add(new Move(this, x1, y1, null, x2, y2, true));
-            } else {
-                moves.add(new Move(this, x1, y1, x2, y2));
-            }
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * Get list of all caption moves for a piece
-     *
-     * @param b current board position
-     * @param x piece 1st coordinate
-     * @param y piece 2nd coordinate
-     * @return list of all caption moves
-     */
-    private ArrayList<Move> enumerateAllCaptureMoves(Board b, int x, int y) {
-        ArrayList<Move> moves = new ArrayList<>();
-
-        for (Integer i : Arrays.asList(x - 1, x + 1)) {
-            for (Integer j : Arrays.asList(y - 1, y + 1)) {
-                if (isCapturable(b, i, j)) {
-                    moves.add(new Move(this, x, y, getPieceOnBoard(b, i, j), i, j, true));
-                }
-            }
-        }
-        return moves;
+        return b.getPossibleMoves(x, y);
     }
 
     /**
@@ -135,8 +53,8 @@ public abstract class Piece {
         if (!board.isOnBoard(x, y)) {
             return false;
         }
-        Tile tile = board.getTile(x, y);
-        return tile.isOccupied() && tile.getPiece().getOwner() != getOwner();
+        Piece piece = getPieceOnBoard(board, x, y);
+        return piece != null && piece.getOwner() != getOwner();
     }
 
     /**
@@ -148,15 +66,7 @@ public abstract class Piece {
      * @return counter (1-4)
      */
     public int countControlledSquares(Board b, int x, int y) {
-        int count = 0;
-        for (Integer i : Arrays.asList(x - 1, x + 1)) {
-            for (Integer j : Arrays.asList(y - 1, y + 1)) {
-                if (b.isOnBoard(i, j) && (isCapturable(b, i, j) || !b.getTile(i, j).isOccupied())) {
-                    count++;
-                }
-            }
-        }
-        return count;
+        return b.countControlledSquares(x, y, getOwner());
     }
 
     /**
@@ -166,4 +76,11 @@ public abstract class Piece {
      */
     public abstract int getScore();
 
-}
\ No newline at end of file
+    /**
+     * Get type of piece (SILVER_FLEET, GOLD_FLEET or FLAGSHIP)
+     *
+     * @return piece type
+     */
+    public abstract int getType();
+
+}
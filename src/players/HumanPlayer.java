@@ -1,11 +1,10 @@
 package players;
 
 import logic.*;
+import pieces.Piece;
 import ui.GamePresenter;
 import ui.gui.BoardPanel;
 
-import java.util.ArrayList;
-
 /**
  * Class to produce logic of human player
  */
@@ -13,6 +12,8 @@ public class HumanPlayer extends Player {
     private final GamePresenter guiPresenter;
     private final Object lock;
     private boolean firstMove=true;
+    // buffer for the moves of the selected piece
+    private final int[] moves = new int[Board.MAX_MOVES];
 
     /**
      * Initialize human player
@@ -34,7 +35,7 @@ public class HumanPlayer extends Player {
 
     @Override
     public Turn getNextTurn(Board b) {
-        Move m1=null;
+        int m1=Move.NONE;
         BoardPanel fp = guiPresenter.getBoardPanel();
 
         while (true) {
@@ -59,23 +60,30 @@ public class HumanPlayer extends Player {
             }
             firstMove=false;
 
-            Tile t = b.getTile(x,y);
+            Piece piece = b.getPiece(x,y);
 
-            if (!t.isOccupied() || t.getPiece().getOwner()!=getColor()){
+            if (piece == null || piece.getOwner()!=getColor()){
                 continue;
             }
 
-            if (m1!=null){
-                if(m1.getX2()==x && m1.getY2()==y){
+            if (m1!=Move.NONE){
+                if(Move.getTo(m1)==BitBoard.square(x, y)){
                     continue;
                 }
             }
             // generate all moves
-            ArrayList<Move> moves = t.getPiece().enumerateAllPossibleMoves(b, x, y);
-            if(m1!=null){
-                moves.removeIf(Move::isSingleMove);
+            int count = b.generatePieceMoves(x, y, moves);
+            if(m1!=Move.NONE){
+                // remove single moves
+                int kept = 0;
+                for (int i = 0; i < count; i++) {
+                    if (!Move.isSingleMove(moves[i])) {
+                        moves[kept++] = moves[i];
+                    }
+                }
+                count = kept;
             }
-            fp.tagPossibleMoves(moves, b,true);
+            fp.tagPossibleMoves(moves, count, b,true);
             // wait for lock again
             try {
                 synchronized(lock) {
@@ -87,21 +95,25 @@ public class HumanPlayer extends Player {
             x = BoardPanel.clickedTile[0];
             y = BoardPanel.clickedTile[1];
 
-            fp.tagPossibleMoves(moves, b,false);
+            fp.tagPossibleMoves(moves, count, b,false);
 
             // if first and second clicked tile represent one legal move, save move
-            for (Move m : moves){
-                if(m.getX2()==x && m.getY2()==y){
-                    if (m.isSingleMove()){
-                        return new Turn(m);
-                    } else if (m1 != null){
-                        return new Turn(m1,m);
+            for (int i = 0; i < count; i++){
+                int m = moves[i];
+                if(b.isOnBoard(x, y) && Move.getTo(m)==BitBoard.square(x, y)){
+                    if (Move.isSingleMove(m)){
+                        return b.toTurn(Turn.encode(m));
+                    } else if (m1 != Move.NONE){
+                        // the returned turn is made from the position before the first move
+                        b.undoMove(m1);
+                        return b.toTurn(Turn.encode(m1, m));
                     }
                     else {
                         m1=m;
                         b.makeMove(m1);
                         if (b.getResult()!=Result.NONE){
-                            return new Turn(m1);
+                            b.undoMove(m1);
+                            return b.toTurn(Turn.encode(m1));
                         }
                     }
 
@@ -19,4 +19,24 @@ public abstract class Player {
 
     public abstract Turn getNextTurn(Board b);
 
+    /**
+     * Called before a new game starts
+     */
+    public void newGame() {
+    }
+
+    /**
+     * Called before getNextTurn in games with time control
+     * @param remaining remaining time of the player (ms)
+     * @param increment time added after every turn (ms)
+     */
+    public void updateClock(long remaining, long increment) {
+    }
+
+    /**
+     * Called after the game is over
+     */
+    public void endGame() {
+    }
+
 }
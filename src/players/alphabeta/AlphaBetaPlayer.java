@@ -1,12 +1,16 @@
 package players.alphabeta;
 
 import logic.*;
-import pieces.Piece;
 import players.Player;
 
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static java.lang.Integer.max;
 import static java.lang.Integer.min;
 
@@ -15,26 +19,52 @@ import static java.lang.Integer.min;
  */
 
 public class AlphaBetaPlayer extends Player {
-    private static final int TIMEOUT = 30000;
-    private static final int inf = 1000000;
-    private static final int ninf = -1000000;
+    static final int inf = 1000000;
+    static final int ninf = -1000000;
+    // iterative deepening of all searches stops at this depth, it has to be below Searcher.MAX_PLY
+    private static final int MAX_DEPTH = 60;
 
     // determines which evaluation function is used
     private final boolean eval;
     private int initDepth;
+    // no depth limit if 0
+    private int maxDepth = 0;
     private int currentDepth = initDepth;
 
-    private boolean timeout;
-    private long start;
-
-    private Turn bestTurnAll;
-    private Turn globalBestTurn;
-
-    private Turn[][] killerMove = new Turn[10][2];
-    private int killerPos = 0;
-    private final TT TT = new TT();
-    private long nodeCounter=0;
+    private final TT transpositionTable;
+    private final Searcher searcher;
+    // lazy SMP: helper searchers which search the same position on other threads and share the transposition table
+    private Searcher[] helpers = new Searcher[0];
+    private ExecutorService helperThreads;
+    private int threads = 1;
+    // search siblings in parallel (young brothers wait) instead of lazy SMP
+    private boolean youngBrothersWait = false;
+    private YoungBrothersWait parallelSearch;
+    private boolean principalVariationSearch = true;
+    private boolean quiescenceSearch = true;
+    private boolean lateMoveReductions = true;
+    private boolean futilityPruning = true;
+    private boolean nullMovePruning = true;
+    private boolean halfMovePlies = false;
+    // aspiration windows: initial half width around the previous value (0 for full windows) and factor by which
+    // the width grows after a fail high or fail low
+    private int aspirationWidth = 50;
+    private int aspirationGrowth = 4;
+    // MTD(f): find the root value with null window searches only
+    private boolean mtdf = false;
     private long statistics [][] = new long [5][3];
+    // time limits of every move, fed by the game clock
+    private final TimeManager timeManager = new TimeManager();
+    // pondering: after a turn, the position after the expected reply is searched while the opponent thinks
+    private boolean pondering = false;
+    private Searcher ponderSearcher;
+    private ExecutorService ponderThread;
+    private Future<?> ponderResult;
+    // hash of the pondered position, it's the hash of the next position if the opponent played the expected reply
+    private long ponderHash;
+    // depth and value of the last iteration the ponder search completed
+    private volatile int ponderDepth;
+    private volatile int ponderValue;
 
     /**
      * Initialize alpha beta player
@@ -43,9 +73,248 @@ public class AlphaBetaPlayer extends Player {
      * @param eval boolean for evaluation function
      */
     public AlphaBetaPlayer (Color color, int initDepth, boolean eval) {
+        this(color, initDepth, eval, new TT());
+    }
+
+    /**
+     * Initialize alpha beta player with a given transposition table (which may be shared with other players with
+     * the same evaluation function, the values in the table depend on it)
+     * @param color color of alpha beta player
+     * @param initDepth initial depth used in iterative deepening
+     * @param eval boolean for evaluation function
+     * @param transpositionTable transposition table used by the search
+     */
+    public AlphaBetaPlayer (Color color, int initDepth, boolean eval, TT transpositionTable) {
         super(color);
         this.initDepth = initDepth;
         this.eval = eval;
+        this.transpositionTable = transpositionTable;
+        this.searcher = new Searcher(this, transpositionTable, true);
+    }
+
+    public TT getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    /**
+     * Set number of search threads. With more than one thread, helper threads search the same position
+     * (lazy SMP) and share their results through the transposition table, or siblings are searched in parallel
+     * if young brothers wait is enabled.
+     * @param threads number of threads (at least 1)
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of threads must be at least 1: " + threads);
+        }
+        this.threads = threads;
+        configureThreads();
+    }
+
+    /**
+     * Select parallel search used with more than one thread
+     * @param youngBrothersWait true for young brothers wait, false for lazy SMP
+     */
+    public void setYoungBrothersWait(boolean youngBrothersWait) {
+        this.youngBrothersWait = youngBrothersWait;
+        configureThreads();
+    }
+
+    private void configureThreads() {
+        if (helperThreads != null) {
+            helperThreads.shutdownNow();
+            helperThreads = null;
+        }
+        if (parallelSearch != null) {
+            parallelSearch.shutdown();
+            parallelSearch = null;
+        }
+        if (youngBrothersWait && threads > 1) {
+            helpers = new Searcher[0];
+            parallelSearch = new YoungBrothersWait(this, transpositionTable, threads);
+            return;
+        }
+        helpers = new Searcher[threads - 1];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Searcher(this, transpositionTable, false);
+        }
+        if (helpers.length > 0) {
+            helperThreads = Executors.newFixedThreadPool(helpers.length, r -> {
+                Thread thread = new Thread(r, "AlphaBeta helper");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Enable or disable principal variation search: the first turn of a node is searched with the full window,
+     * the other turns with a null window and only re-searched if they fail high
+     * @param principalVariationSearch true for principal variation search, false for full windows
+     */
+    public void setPrincipalVariationSearch(boolean principalVariationSearch) {
+        this.principalVariationSearch = principalVariationSearch;
+    }
+
+    /**
+     * Configure aspiration windows of iterative deepening: every iteration starts with a window around the value
+     * of the previous iteration which is widened after a fail high or fail low
+     * @param width initial distance of alpha and beta to the previous value, 0 for full windows
+     * @param growth factor by which the distance grows after a failed search (at least 2)
+     */
+    public void setAspirationWindow(int width, int growth) {
+        if (width < 0 || growth < 2) {
+            throw new IllegalArgumentException("Invalid aspiration window: width " + width + ", growth " + growth);
+        }
+        this.aspirationWidth = width;
+        this.aspirationGrowth = growth;
+    }
+
+    /**
+     * Select root driver of iterative deepening: MTD(f) converges on the root value with null window searches,
+     * starting from the value of the previous iteration, and relies on the transposition table to search
+     * the same tree again. Otherwise alpha beta is called with (aspiration) windows.
+     * @param mtdf true for MTD(f)
+     */
+    public void setMtdf(boolean mtdf) {
+        this.mtdf = mtdf;
+    }
+
+    boolean isPrincipalVariationSearch() {
+        return principalVariationSearch;
+    }
+
+    /**
+     * Enable or disable quiescence search: leaf nodes are extended by captures and flagship moves to the edge
+     * @param quiescenceSearch true for quiescence search, false to evaluate leaf nodes directly
+     */
+    public void setQuiescenceSearch(boolean quiescenceSearch) {
+        this.quiescenceSearch = quiescenceSearch;
+    }
+
+    boolean isQuiescenceSearch() {
+        return quiescenceSearch;
+    }
+
+    /**
+     * Enable or disable late move reductions: quiet turns late in the move ordering are searched with reduced
+     * depth and only searched again with full depth if they raise alpha
+     * @param lateMoveReductions true for late move reductions
+     */
+    public void setLateMoveReductions(boolean lateMoveReductions) {
+        this.lateMoveReductions = lateMoveReductions;
+    }
+
+    boolean isLateMoveReductions() {
+        return lateMoveReductions;
+    }
+
+    /**
+     * Enable or disable futility pruning and razoring: at nodes of depth 1 and 2 quiet turns are skipped if the
+     * static value is too far below alpha, nodes even further below alpha are only searched by the quiescence
+     * search
+     * @param futilityPruning true for futility pruning and razoring
+     */
+    public void setFutilityPruning(boolean futilityPruning) {
+        this.futilityPruning = futilityPruning;
+    }
+
+    boolean isFutilityPruning() {
+        return futilityPruning;
+    }
+
+    /**
+     * Enable or disable null move pruning: at null window nodes the player to move passes and the opponent is
+     * searched with reduced depth, if the value is still at least beta (and a verification search confirms it)
+     * the node is cut off
+     * @param nullMovePruning true for null move pruning
+     */
+    public void setNullMovePruning(boolean nullMovePruning) {
+        this.nullMovePruning = nullMovePruning;
+    }
+
+    boolean isNullMovePruning() {
+        return nullMovePruning;
+    }
+
+    /**
+     * Enable or disable the half move search: every move of a turn is a ply of its own and the player only changes
+     * after the second move, so a node has about n children per level instead of n^2 turns. The search depth is
+     * still given in turns (two plies). Not used by the young brothers wait search.
+     * @param halfMovePlies true to search moves as plies, false to search turns
+     */
+    public void setHalfMovePlies(boolean halfMovePlies) {
+        this.halfMovePlies = halfMovePlies;
+    }
+
+    boolean isHalfMovePlies() {
+        return halfMovePlies;
+    }
+
+    /**
+     * Enable or disable pondering: after a turn, the position after the reply expected by the transposition table
+     * is searched on a background thread until the opponent moved. If the opponent played the expected reply,
+     * iterative deepening continues at the depth the ponder search completed, otherwise the search is discarded.
+     * @param pondering true to search on the time of the opponent
+     */
+    public void setPondering(boolean pondering) {
+        stopPondering();
+        this.pondering = pondering;
+        if (pondering && ponderThread == null) {
+            ponderSearcher = new Searcher(this, transpositionTable, false);
+            ponderThread = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "AlphaBeta ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else if (!pondering && ponderThread != null) {
+            ponderThread.shutdown();
+            ponderThread = null;
+            ponderSearcher = null;
+        }
+    }
+
+    /**
+     * Limit depth of iterative deepening (e.g. to measure the time needed for a depth)
+     * @param maxDepth maximum depth, 0 for no limit
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Get statistics of all searches
+     * @return for every depth < 5: total time to complete the depth (ms), nodes of the iteration and number of
+     * iterations
+     */
+    public long[][] getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Set state of the game clock: the time of the next move is taken from the remaining time and the increment
+     * @param remaining remaining time of the player (ms)
+     * @param increment time added after every turn (ms)
+     */
+    @Override
+    public void updateClock(long remaining, long increment) {
+        timeManager.setClock(remaining, increment);
+    }
+
+    /**
+     * Forget results of previous games
+     */
+    @Override
+    public void newGame() {
+        stopPondering();
+        transpositionTable.clear();
+    }
+
+    /**
+     * Stop pondering when the game is over
+     */
+    @Override
+    public void endGame() {
+        stopPondering();
     }
 
     /**
@@ -55,181 +324,308 @@ public class AlphaBetaPlayer extends Player {
      */
     @Override
     public Turn getNextTurn(Board b) {
-        Turn result;
-        timeout = false;
-        start = System.currentTimeMillis();
-        nodeCounter=0;
-        killerPos = 0;
-        killerMove = new Turn[10][2];
-        bestTurnAll=null;
+        int result;
+        long start = System.currentTimeMillis();
+        // the ponder search already searched this position if the opponent played the expected reply
+        boolean ponderHit = stopPondering() && TT.hash(b, getColor()) == ponderHash;
+        timeManager.startMove();
+        long deadline = timeManager.getDeadline();
+        RootSearch rootSearch = parallelSearch != null ? parallelSearch : searcher;
+        rootSearch.startSearch(deadline);
+        int bestTurnAll;
+        int globalBestTurn = Turn.NONE;
         int d = 0;
-        // compute hash of board
-        long hash = TT.getHashBoard(b,getColor());
+        long iterationStart = start;
+        long iterationNodes = 0;
+        transpositionTable.newSearch();
+        List<Future<?>> helperResults = startHelpers(b, deadline);
+        int previousValue = 0;
+        if (ponderHit && ponderDepth > initDepth) {
+            // the completed depth of the ponder search is answered by the transposition table
+            System.out.println("Ponder hit, continue with depth " + ponderDepth);
+            d = ponderDepth - initDepth;
+            previousValue = ponderValue;
+        }
         // iterative deepening
         while (true) {
-            if (d > 0) {
-                globalBestTurn = bestTurnAll;
-                System.out.println("Completed search with depth " + currentDepth + ". Best move so far: " + globalBestTurn);
-                long duration = (System.currentTimeMillis() - start);
-                if(currentDepth < 5) {
-                    statistics[currentDepth][0] += duration;
-                    statistics[currentDepth][1] += nodeCounter;
-                    statistics[currentDepth][2] += 1;
+            currentDepth = initDepth + d;
+            // best turn of a fail high, it is better than the turn of the previous iteration
+            int failHighTurn = Turn.NONE;
+            int value;
+            if (mtdf) {
+                value = d > 0 ? previousValue : 0;
+                int lowerBound = ninf;
+                int upperBound = inf;
+                while (lowerBound < upperBound) {
+                    int beta = value == lowerBound ? value + 1 : value;
+                    value = rootSearch.search(b, currentDepth, beta - 1, beta, getColor());
+                    if (rootSearch.isTimeout()) {
+                        break;
+                    }
+                    if (value < beta) {
+                        upperBound = value;
+                    } else {
+                        lowerBound = value;
+                        failHighTurn = rootSearch.getBestTurn();
+                    }
+                }
+            } else {
+                int alpha = ninf;
+                int beta = inf;
+                int delta = aspirationWidth;
+                if (aspirationWidth > 0 && d > 0 && previousValue > ninf && previousValue < inf) {
+                    alpha = max(ninf, previousValue - delta);
+                    beta = min(inf, previousValue + delta);
+                }
+                while (true) {
+                    value = rootSearch.search(b, currentDepth, alpha, beta, getColor());
+                    if (rootSearch.isTimeout()) {
+                        break;
+                    }
+                    if (value <= alpha && alpha > ninf) {
+                        delta = (int) Math.min(inf, (long) delta * aspirationGrowth);
+                        alpha = max(ninf, value - delta);
+                    } else if (value >= beta && beta < inf) {
+                        failHighTurn = rootSearch.getBestTurn();
+                        delta = (int) Math.min(inf, (long) delta * aspirationGrowth);
+                        beta = min(inf, value + delta);
+                    } else {
+                        break;
+                    }
                 }
-                bestTurnAll=null;
-                nodeCounter = 0;
-                killerPos = 0;
-                killerMove = new Turn[10][2];
             }
-            currentDepth = initDepth + d;
-            int value = alphaBetaNegaMax(b, currentDepth, ninf, inf, getColor(), hash);
-            if (timeout) {
-                result = globalBestTurn;
+            // the last MTD(f) search may fail low, its best turn is only an upper bound
+            bestTurnAll = mtdf && failHighTurn != Turn.NONE ? failHighTurn : rootSearch.getBestTurn();
+            if (rootSearch.isTimeout()) {
+                // partial iteration: a turn which raised alpha before the timeout was searched with the new
+                // depth and is better than the turn of the previous iteration
+                if (failHighTurn != Turn.NONE) {
+                    result = failHighTurn;
+                } else {
+                    result = bestTurnAll != Turn.NONE ? bestTurnAll : globalBestTurn;
+                }
                 break;
             }
+            previousValue = value;
+            globalBestTurn = bestTurnAll;
+            long duration = (System.currentTimeMillis() - start);
+            long iterationDuration = System.currentTimeMillis() - iterationStart;
+            long nodeCounter = getNodes() - iterationNodes;
+            System.out.println("Completed search with depth " + currentDepth + ". Best move so far: " + Turn.toString(globalBestTurn)
+                    + " (" + nodeCounter + " nodes, " + (1000 * nodeCounter / Math.max(1, iterationDuration)) + " nodes/s)");
+            if(currentDepth < 5) {
+                statistics[currentDepth][0] += duration;
+                statistics[currentDepth][1] += nodeCounter;
+                statistics[currentDepth][2] += 1;
+            }
+            iterationNodes += nodeCounter;
+            iterationStart = System.currentTimeMillis();
             if (value == inf) {
-                System.out.println(bestTurnAll);
+                System.out.println(Turn.toString(bestTurnAll));
+                result = bestTurnAll;
+                break;
+            }
+            if ((maxDepth > 0 && currentDepth >= maxDepth) || currentDepth >= MAX_DEPTH) {
+                result = bestTurnAll;
+                break;
+            }
+            // the next iteration would exceed the time of this move
+            if (!timeManager.canStartIteration(iterationDuration * 1000000)) {
                 result = bestTurnAll;
                 break;
             }
             d++;
         }
+        stopHelpers(helperResults);
         System.out.println("Statistics:"+Arrays.deepToString(statistics));
-        return result;
+        if (result == Turn.NONE && b.getResult() == Result.NONE) {
+            // not even the first iteration was finished
+            TurnList turns = new TurnList();
+            b.generateTurns(getColor(), turns);
+            result = turns.size() > 0 ? turns.get(0) : Turn.NONE;
+        }
+        if (result == Turn.NONE) {
+            return null;
+        }
+        Turn turn = b.toTurn(result);
+        if (pondering) {
+            startPondering(b, result);
+        }
+        return turn;
     }
 
     /**
-     * find value of current board position
-     * @param b board position
-     * @param depth depth at which board position should be searched
-     * @param alpha alpha value
-     * @param beta beta value
-     * @param c player at the root node
-     * @param hash hash value of board position
-     * @return root value
+     * Start the ponder search of the position after a turn of this player and the reply the transposition table
+     * expects. Nothing is searched if the table has no reply or the game ends before.
+     * @param b board position before the turn
+     * @param turn encoded turn of this player
      */
-
-    public int alphaBetaNegaMax(Board b, int depth, int alpha, int beta, Color c, long hash) {
-        if (System.currentTimeMillis() - start > TIMEOUT) {
-            timeout = true;
-            return alpha;
+    private void startPondering(Board b, int turn) {
+        Board board = b.clone();
+        board.makeTurn(turn);
+        if (board.getResult() != Result.NONE) {
+            return;
         }
-        nodeCounter++;
-
-        int olda = alpha;
-
-        TTentry n = TT.retrieve(hash);
-        Turn tt = null;
-        // transposition tables look-up
-        if (n != null) {
-            if (n.getDepth() >= depth) {
-                if (n.getType() == 0) {
-                    if (depth == currentDepth){
-                        bestTurnAll = n.getTurn();
-                    }
-                    return n.getValue();
-                } else if (n.getType() == -1) {
-                    alpha = max(alpha, n.getValue());
-                } else if (n.getType() == 1) {
-                    beta = min(beta, n.getValue());
+        Color opponent = getColor() == Color.GOLD ? Color.SILVER : Color.GOLD;
+        int reply = expectedReply(board, opponent);
+        if (reply == Turn.NONE) {
+            return;
+        }
+        board.makeTurn(reply);
+        if (board.getResult() != Result.NONE) {
+            return;
+        }
+        ponderHash = TT.hash(board, getColor());
+        ponderDepth = 0;
+        transpositionTable.newSearch();
+        Searcher ponder = ponderSearcher;
+        // no deadline: the search runs until the opponent moved
+        ponder.startSearch(Long.MAX_VALUE);
+        ponderResult = ponderThread.submit(() -> {
+            for (int depth = initDepth; depth <= MAX_DEPTH; depth++) {
+                int value = ponder.search(board, depth, ninf, inf, getColor());
+                if (ponder.isTimeout()) {
+                    break;
                 }
-                if (alpha >= beta) {
-                    if (depth == currentDepth){
-                        bestTurnAll = n.getTurn();
-                    }
-                    return n.getValue();
+                ponderValue = value;
+                ponderDepth = depth;
+                if (value == inf || value == ninf) {
+                    break;
                 }
-            } else {
-                tt = n.getTurn();
             }
-        }
+        });
+    }
 
-        if (depth == 0 || b.getResult() != Result.NONE) {
-            if (eval) {
-                return evaluate(b, c);
-            } else {
-                return evaluate2(b, c);
+    /**
+     * Get the reply the transposition table expects. The half move search stores only the first move of a turn
+     * in the entry of the position, its second move is taken from the entry of the position within the turn.
+     * @param board board position after the turn of this player
+     * @param opponent player to move
+     * @return encoded turn or Turn.NONE if the table has no possible reply
+     */
+    private int expectedReply(Board board, Color opponent) {
+        long n = transpositionTable.retrieve(TT.hash(board, opponent));
+        int reply = n != TT.EMPTY ? TT.getTurn(n) : Turn.NONE;
+        int first = Turn.getFirstMove(reply);
+        if (reply != Turn.NONE && !Turn.hasTwoMoves(reply) && !Move.isSingleMove(first)
+                && isPossibleMove(board, opponent, first)) {
+            board.makeMove(first);
+            if (board.getResult() == Result.NONE) {
+                long second = transpositionTable.retrieve(TT.hashWithinTurn(board, opponent, first));
+                if (second != TT.EMPTY && TT.getTurn(second) != Turn.NONE) {
+                    reply = Turn.encode(first, Turn.getFirstMove(TT.getTurn(second)));
+                }
             }
+            board.undoMove(first);
         }
+        return reply != Turn.NONE && board.isPossibleTurn(reply, opponent) ? reply : Turn.NONE;
+    }
 
-        // move ordering
-        List<Turn> sortedTurns = sortedTurns(b, c, tt, depth);
-
-        Color c1 = Color.GOLD;
-        if (c == Color.GOLD) {
-            c1 = Color.SILVER;
-        }
-
-        Turn bestTurn = sortedTurns.get(0);
-        int score = ninf;
-        for (Turn t : sortedTurns) {
-            b.makeTurn(t);
-            int value = -alphaBetaNegaMax(b, depth - 1, -beta, -alpha, c1, TT.computeHash(hash, t));
-            b.undoTurn(t);
-            if (value > score) {
-                score = value;
-                bestTurn = t;
-                if (score > alpha) {
-                    alpha = score;
-                    if (depth == currentDepth) {
-                        bestTurnAll = t;
-                        if (!timeout) {
-                            System.out.println(t + " depth:" + depth + " score:" + score);
-                        }
-                    }
-                }
-                if (score >= beta) {
-                    if (depth > 1 && depth < 10 && !timeout) {
-                        killerMove[depth][killerPos] = t;
-                        killerPos ^= 1;
-                    }
-                    break;
-                }
+    /**
+     * Check whether a move is possible as first move of a turn
+     * @param board board position
+     * @param c player to move
+     * @param move encoded move (see Move)
+     * @return true if the move is generated in this position
+     */
+    private static boolean isPossibleMove(Board board, Color c, int move) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(c, moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
             }
         }
-        if (!timeout) {
-            int type = 0;
-            if (score <= olda) {
-                type = 1;
-            } else if (score >= beta) {
-                type = -1;
-            }
-            TT.saveTTentry(hash, type, score, depth, bestTurn);
+        return false;
+    }
+
+    /**
+     * Stop the ponder search and wait until it is finished
+     * @return true if a ponder search was running
+     */
+    private boolean stopPondering() {
+        if (ponderResult == null) {
+            return false;
         }
-        // fail low with TT at maximum depth
-        if (depth == currentDepth && bestTurnAll == null) {
-            bestTurnAll=bestTurn;
+        ponderSearcher.stop();
+        try {
+            ponderResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ponder search failed", e.getCause());
+        } finally {
+            ponderResult = null;
         }
-
-
-        return score;
-
+        return true;
     }
 
-    private List<Turn> sortedTurns(Board b, Color c, Turn t, int depth) {
-        List<Turn> legalTurns = b.getAllPossibleTurns(c);
-        // sort by capture moves first
-        Collections.sort(legalTurns);
-        // order by killer moves
-        if (depth > 1 && depth < 10) {
-            for (int pos : Arrays.asList(killerPos, killerPos ^ 1)) {
-                if (killerMove[depth][pos] != null) {
-                    Turn k = killerMove[depth][pos];
-                    if (legalTurns.contains(k)) {
-                        legalTurns.remove(k);
-                        legalTurns.add(0, k);
+    /**
+     * Start helper searchers, every second helper starts one ply deeper than the main search
+     * @param b board position
+     * @param deadline time at which the searches stop (System.nanoTime)
+     * @return futures of the helper searches
+     */
+    private List<Future<?>> startHelpers(Board b, long deadline) {
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < helpers.length; i++) {
+            Searcher helper = helpers[i];
+            Board board = b.clone();
+            int depth = initDepth + (i & 1);
+            helper.startSearch(deadline);
+            results.add(helperThreads.submit(() -> {
+                for (int helperDepth = depth; !helper.isTimeout(); helperDepth++) {
+                    if (helper.search(board, helperDepth, ninf, inf, getColor()) == inf || helperDepth >= MAX_DEPTH) {
+                        break;
                     }
                 }
-            }
+            }));
+        }
+        return results;
+    }
+
+    /**
+     * Stop helper searchers and wait until they are finished
+     * @param results futures of the helper searches
+     */
+    private void stopHelpers(List<Future<?>> results) {
+        for (Searcher helper : helpers) {
+            helper.stop();
         }
-        // order by TT
-        if (t != null) {
-            if (legalTurns.contains(t)) {
-                legalTurns.remove(t);
-                legalTurns.add(0, t);
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed", e.getCause());
             }
         }
-        return legalTurns;
+    }
+
+    /**
+     * Get number of nodes searched by all threads for the current (or last) move
+     * @return number of nodes
+     */
+    public long getNodes() {
+        long nodes = parallelSearch != null ? parallelSearch.getNodes() : searcher.getNodes();
+        for (Searcher helper : helpers) {
+            nodes += helper.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * Evaluate position with the evaluation function of this player
+     * @param b board position
+     * @param c player to move
+     * @return value of position for player c
+     */
+    int evaluatePosition(Board b, Color c) {
+        if (eval) {
+            return evaluate(b, c);
+        }
+        return evaluate2(b, c);
     }
 
     public int evaluate(Board b, Color c) {
@@ -273,21 +669,8 @@ public class AlphaBetaPlayer extends Player {
     }
 
     public int calculateMaterialBalance(Board b, Color c) {
-        int goldScore = 0;
-        int silverScore = 0;
-
-        for (int i = 0; i < Board.BOARD_SIZE; i++) {
-            for (int j = 0; j < Board.BOARD_SIZE; j++) {
-                if (b.getTile(i, j).isOccupied()) {
-                    Piece p = b.getTile(i, j).getPiece();
-                    if (p.getOwner() == Color.GOLD) {
-                        goldScore += p.getScore();
-                    } else {
-                        silverScore += p.getScore();
-                    }
-                }
-            }
-        }
+        int goldScore = b.getMaterial(Color.GOLD);
+        int silverScore = b.getMaterial(Color.SILVER);
         if (c == Color.SILVER) {
             return (100 * (silverScore - goldScore)) / silverScore;
         }
@@ -296,11 +679,11 @@ public class AlphaBetaPlayer extends Player {
 
 
     public int calculateFlagshipScore(Board b, Color c) {
-        int[] coordinates = b.findFlagship();
+        int flagship = b.getFlagshipSquare();
         if (c == Color.GOLD) {
-            return b.flagshipFreedom(coordinates); // 100 - b.distanceToFlagship(coordinates); // b.piecesToBoarder(coordinates);
+            return b.flagshipFreedom(flagship); // 100 - b.distanceToFlagship(flagship); // b.piecesToBoarder(b.findFlagship());
         }
-        return b.distanceToFlagship(coordinates);
+        return b.distanceToFlagship(flagship);
     }
 
 
@@ -0,0 +1,45 @@
+package players.alphabeta;
+
+import logic.Board;
+import logic.Color;
+
+/**
+ * Search of the root position, called by the iterative deepening of AlphaBetaPlayer
+ */
+interface RootSearch {
+    /**
+     * Prepare search of a new move
+     * @param deadline time at which the search stops (System.nanoTime)
+     */
+    void startSearch(long deadline);
+
+    /**
+     * Search root position with a given depth
+     * @param b board position
+     * @param depth search depth
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player to move
+     * @return root value
+     */
+    int search(Board b, int depth, int alpha, int beta, Color c);
+
+    /**
+     * Stop the search as soon as possible (it ends like after a timeout)
+     */
+    void stop();
+
+    boolean isTimeout();
+
+    /**
+     * Get best turn of the last search
+     * @return encoded turn (see Turn)
+     */
+    int getBestTurn();
+
+    /**
+     * Get number of nodes searched since the start of the current move
+     * @return number of nodes
+     */
+    long getNodes();
+}
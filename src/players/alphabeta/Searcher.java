@@ -0,0 +1,807 @@
+package players.alphabeta;
+
+import logic.*;
+import pieces.Piece;
+
+import java.util.Arrays;
+import static java.lang.Integer.max;
+import static java.lang.Integer.min;
+import static players.alphabeta.AlphaBetaPlayer.inf;
+import static players.alphabeta.AlphaBetaPlayer.ninf;
+
+/**
+ * Alpha beta search of one thread. Every searcher has its own killer moves and turn buffers, the transposition
+ * table may be shared with searchers of other threads.
+ */
+class Searcher implements RootSearch {
+    // searches are at most this deep (in turns), the half move search has two plies per turn
+    static final int MAX_PLY = 64;
+    private static final int MAX_HALF_MOVE_PLY = 2 * MAX_PLY;
+    // late move reductions: turns are only reduced at nodes with this depth or more and after this many turns
+    private static final int LMR_MIN_DEPTH = 2;
+    private static final int LMR_FULL_TURNS = 4;
+    // reduction by depth and turn index, it grows with the logarithm of both
+    private static final int[][] REDUCTIONS = new int[MAX_PLY][256];
+    // futility pruning: a quiet turn at a node of depth 1 or 2 doesn't raise the static value by more than the
+    // margin of the depth (a single quiet turn changes the evaluation by at most 25), razoring: nodes whose static
+    // value is below alpha by more than the margin are searched by the quiescence search
+    private static final int[] FUTILITY_MARGIN = {0, 30, 60};
+    private static final int[] RAZOR_MARGIN = {0, 60, 120};
+    // null move pruning: nodes with this depth or more may be cut off after a pass, which is searched with the
+    // depth reduced by NULL_MOVE_REDUCTION (one more at deep nodes)
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_REDUCTION = 2;
+    private static final int NULL_MOVE_DEEP = 6;
+    // maximum number of plies of the quiescence search
+    private static final int MAX_QUIESCENCE_PLY = 8;
+    // delta pruning: a capture is skipped if even the gain of the material balance plus this margin (for changes
+    // of the flagship score) can't raise the score to alpha
+    private static final int DELTA_MARGIN = 20;
+    // ordering scores of the half move search: TT move and killer moves (single moves are scored by
+    // TurnGenerator.scoreSingleMove, other motion moves by history below the killer moves)
+    private static final int TT_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int KILLER_SCORE = -1;
+    // number of nodes between two checks of the deadline
+    private static final int POLL_INTERVAL = 1024;
+    // value of repeated positions
+    static final int DRAW = 0;
+    // history values are halved when one of them reaches this limit
+    private static final int MAX_HISTORY = 1 << 20;
+
+    static {
+        for (int depth = 1; depth < MAX_PLY; depth++) {
+            for (int index = 1; index < REDUCTIONS[depth].length; index++) {
+                int reduction = (int) (0.75 + Math.log(depth) * Math.log(index) / 2.5);
+                REDUCTIONS[depth][index] = Math.min(reduction, depth - 1);
+            }
+        }
+    }
+
+    private final AlphaBetaPlayer player;
+    private final TT transpositionTable;
+    // only the main searcher prints its progress
+    private final boolean main;
+
+    private int currentDepth;
+    // principal variation search: null windows for all turns but the first
+    private boolean principalVariation;
+    // extend leaf nodes by captures and flagship escapes
+    private boolean quiescence;
+    // search late quiet turns with reduced depth
+    private boolean lateMoveReductions;
+    // skip quiet turns at frontier nodes far below alpha
+    private boolean futilityPruning;
+    // cut off null window nodes if a pass still reaches beta
+    private boolean nullMovePruning;
+    // search every move as a ply of its own instead of turns of two moves
+    private boolean halfMovePlies;
+    private volatile boolean stopped;
+    private boolean timeout;
+    // the search stops at this time (System.nanoTime), the clock is read every POLL_INTERVAL nodes
+    private long deadline;
+    private int pollCountdown;
+
+    // best turn at the root of the current iteration (encoded, see Turn)
+    private int bestTurnAll;
+
+    private final int[][] killerMove = new int[10][2];
+    private int killerPos = 0;
+    // turn generators for every ply, reused in each search
+    private final TurnGenerator[] generators = new TurnGenerator[MAX_PLY];
+    // moves and ordering scores of every ply of the quiescence search
+    private final int[][] quiescenceMoves = new int[MAX_QUIESCENCE_PLY][Board.MAX_MOVES];
+    private final int[][] quiescenceScores = new int[MAX_QUIESCENCE_PLY][Board.MAX_MOVES];
+    // moves, ordering scores, killer moves and best move of every ply of the half move search
+    private final int[][] halfMoves = new int[MAX_HALF_MOVE_PLY][Board.MAX_MOVES];
+    private final int[][] halfMoveScores = new int[MAX_HALF_MOVE_PLY][Board.MAX_MOVES];
+    private final int[][] halfMoveKillers = new int[MAX_HALF_MOVE_PLY][2];
+    private final int[] halfMoveBest = new int[MAX_HALF_MOVE_PLY];
+    // captures and flagship moves to find winning moves before a pass
+    private final int[] threatMoves = new int[Board.MAX_MOVES];
+    // turn made at every ply of the current search, Turn.NONE after a pass
+    private final int[] plyTurns = new int[MAX_PLY];
+    // history heuristic: for every player, value of moves (by from and to square) which caused beta cutoffs
+    private final int[][] history = new int[2][BitBoard.SQUARES * BitBoard.SQUARES];
+    // countermove heuristic: for every player, turn which caused a beta cutoff after the last move (by from and
+    // to square) of the opponent
+    private final int[][] counterMove = new int[2][BitBoard.SQUARES * BitBoard.SQUARES];
+    // nodes searched since the start of the current move
+    private long nodeCounter = 0;
+    // node of the young brothers wait search this searcher works for (null otherwise)
+    private YoungBrothersWait.Node abortNode;
+
+    /**
+     * Initialize searcher
+     * @param player player whose evaluation function is used
+     * @param transpositionTable transposition table used by the search
+     * @param main true for the searcher whose result is played
+     */
+    Searcher(AlphaBetaPlayer player, TT transpositionTable, boolean main) {
+        this.player = player;
+        this.transpositionTable = transpositionTable;
+        this.main = main;
+    }
+
+    /**
+     * Prepare search of a new move
+     * @param deadline time at which the search stops (System.nanoTime)
+     */
+    @Override
+    public void startSearch(long deadline) {
+        this.deadline = deadline;
+        pollCountdown = 0;
+        stopped = false;
+        timeout = false;
+        nodeCounter = 0;
+        ageHistory(3);
+    }
+
+    @Override
+    public int search(Board b, int depth, int alpha, int beta, Color c) {
+        currentDepth = depth;
+        principalVariation = player.isPrincipalVariationSearch();
+        quiescence = player.isQuiescenceSearch();
+        lateMoveReductions = player.isLateMoveReductions();
+        futilityPruning = player.isFutilityPruning();
+        nullMovePruning = player.isNullMovePruning();
+        halfMovePlies = player.isHalfMovePlies();
+        bestTurnAll = Turn.NONE;
+        clearKillerMoves();
+        if (halfMovePlies) {
+            return halfMoveNegaMax(b, 2 * depth, alpha, beta, c, 0, Move.NONE);
+        }
+        return alphaBetaNegaMax(b, depth, alpha, beta, c, 0);
+    }
+
+    /**
+     * Search a subtree of the young brothers wait search. The search is aborted like after a timeout if the
+     * node or one of its ancestors is cancelled.
+     * @param b board position
+     * @param depth search depth
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player to move
+     * @param deadline time at which the search stops (System.nanoTime)
+     * @param node node of the subtree in the young brothers wait search
+     * @return value of the subtree
+     */
+    int searchSubtree(Board b, int depth, int alpha, int beta, Color c, long deadline,
+                      YoungBrothersWait.Node node) {
+        this.deadline = deadline;
+        timeout = false;
+        abortNode = node;
+        currentDepth = depth;
+        principalVariation = player.isPrincipalVariationSearch();
+        quiescence = player.isQuiescenceSearch();
+        lateMoveReductions = player.isLateMoveReductions();
+        futilityPruning = player.isFutilityPruning();
+        nullMovePruning = player.isNullMovePruning();
+        int value = alphaBetaNegaMax(b, depth, alpha, beta, c, 0);
+        abortNode = null;
+        return value;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+    }
+
+    @Override
+    public boolean isTimeout() {
+        return timeout;
+    }
+
+    @Override
+    public int getBestTurn() {
+        return bestTurnAll;
+    }
+
+    @Override
+    public long getNodes() {
+        return nodeCounter;
+    }
+
+    /**
+     * Check whether the search has to stop: it was stopped, the deadline passed or (in the young brothers wait
+     * search) the subtree was cancelled. The clock and the cancelled flags are only read every POLL_INTERVAL nodes.
+     * @return true if the search has to stop
+     */
+    private boolean isTimeUp() {
+        if (timeout || stopped) {
+            return true;
+        }
+        if (--pollCountdown > 0) {
+            return false;
+        }
+        pollCountdown = POLL_INTERVAL;
+        return System.nanoTime() > deadline || (abortNode != null && abortNode.isCancelled());
+    }
+
+    /**
+     * Reduce history values so that cutoffs of the current search count more than older ones
+     * @param shift number of bits every value is shifted right
+     */
+    private void ageHistory(int shift) {
+        for (int[] values : history) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] >>= shift;
+            }
+        }
+    }
+
+    /**
+     * Get index of a move in the history and countermove tables
+     * @param move encoded move (see Move)
+     * @return index computed from the from and to square
+     */
+    static int moveIndex(int move) {
+        return Move.getFrom(move) * BitBoard.SQUARES + Move.getTo(move);
+    }
+
+    /**
+     * Get index of the last move of a turn in the countermove table
+     * @param turn encoded turn (see Turn)
+     * @return index computed from the from and to square of the last move
+     */
+    private static int lastMoveIndex(int turn) {
+        return moveIndex(Turn.hasTwoMoves(turn) ? Turn.getSecondMove(turn) : Turn.getFirstMove(turn));
+    }
+
+    /**
+     * Update history and countermove tables after a quiet turn (two moves) caused a beta cutoff
+     * @param c player who made the turn
+     * @param t turn
+     * @param depth depth of the node
+     * @param ply plies from the root
+     */
+    private void updateHistory(Color c, int t, int depth, int ply) {
+        int[] values = history[c.ordinal()];
+        int first = moveIndex(Turn.getFirstMove(t));
+        int second = moveIndex(Turn.getSecondMove(t));
+        values[first] += depth * depth;
+        values[second] += depth * depth;
+        if (values[first] >= MAX_HISTORY || values[second] >= MAX_HISTORY) {
+            ageHistory(1);
+        }
+        if (ply > 0 && plyTurns[ply - 1] != Turn.NONE) {
+            counterMove[c.ordinal()][lastMoveIndex(plyTurns[ply - 1])] = t;
+        }
+    }
+
+    private void clearKillerMoves() {
+        killerPos = 0;
+        for (int[] killers : killerMove) {
+            Arrays.fill(killers, Turn.NONE);
+        }
+        for (int[] killers : halfMoveKillers) {
+            Arrays.fill(killers, Move.NONE);
+        }
+    }
+
+    /**
+     * find value of current board position
+     * @param b board position
+     * @param depth depth at which board position should be searched
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player at the root node
+     * @param ply plies from the root, reduced searches don't skip plies
+     * @return root value
+     */
+
+    int alphaBetaNegaMax(Board b, int depth, int alpha, int beta, Color c, int ply) {
+        if (isTimeUp()) {
+            timeout = true;
+            return alpha;
+        }
+        nodeCounter++;
+        // a repeated position is a draw: the cycle doesn't need to be searched again
+        if (depth < currentDepth && b.isRepetition()) {
+            return DRAW;
+        }
+
+        int olda = alpha;
+
+        long hash = TT.hash(b, c);
+        long n = transpositionTable.retrieve(hash);
+        int tt = Turn.NONE;
+        // transposition tables look-up
+        if (n != TT.EMPTY) {
+            int ttValue = TT.getValue(n);
+            tt = TT.getTurn(n);
+            if (TT.getDepth(n) >= depth) {
+                if (TT.getType(n) == 0) {
+                    if (depth == currentDepth){
+                        bestTurnAll = TT.getTurn(n);
+                    }
+                    return ttValue;
+                } else if (TT.getType(n) == -1) {
+                    alpha = max(alpha, ttValue);
+                } else if (TT.getType(n) == 1) {
+                    beta = min(beta, ttValue);
+                }
+                if (alpha >= beta) {
+                    if (depth == currentDepth){
+                        bestTurnAll = TT.getTurn(n);
+                    }
+                    return ttValue;
+                }
+            }
+        }
+
+        if (depth == 0 && quiescence && b.getResult() == Result.NONE) {
+            return quiescenceSearch(b, alpha, beta, c, 0);
+        }
+        if (depth == 0 || b.getResult() != Result.NONE) {
+            return player.evaluatePosition(b, c);
+        }
+
+        Color c1 = Color.GOLD;
+        if (c == Color.GOLD) {
+            c1 = Color.SILVER;
+        }
+
+        // futility pruning and razoring at frontier nodes: the static value is the evaluation by the opponent,
+        // like the values of the children
+        boolean futile = false;
+        int futilityValue = ninf;
+        if (futilityPruning && depth < FUTILITY_MARGIN.length && depth < currentDepth && alpha > ninf && beta < inf) {
+            int staticValue = -player.evaluatePosition(b, c1);
+            if (staticValue + RAZOR_MARGIN[depth] <= alpha) {
+                // hopeless node: only captures and flagship escapes can help, standing pat on the static value
+                // keeps the result on the scale of the children. A fail low is an upper bound, quiet turns may
+                // still gain up to the margin.
+                int value = quiescenceSearch(b, alpha, beta, c, 0, staticValue);
+                if (value <= alpha) {
+                    return max(value, staticValue + RAZOR_MARGIN[depth]);
+                }
+            }
+            futilityValue = staticValue + FUTILITY_MARGIN[depth];
+            futile = futilityValue <= alpha;
+        }
+
+        // null move pruning: if the opponent can't reach beta even after a pass, a turn will reach it as well
+        if (nullMovePruning && depth >= NULL_MOVE_MIN_DEPTH && ply > 0 && beta - alpha == 1 && alpha > ninf
+                && beta < inf && plyTurns[ply - 1] != Turn.NONE && -player.evaluatePosition(b, c1) >= beta
+                && !hasWinningMove(b, c) && !hasWinningMove(b, c1)) {
+            int reduction = depth >= NULL_MOVE_DEEP ? NULL_MOVE_REDUCTION + 1 : NULL_MOVE_REDUCTION;
+            // no pass directly after a pass
+            plyTurns[ply] = Turn.NONE;
+            b.passTurn();
+            int value = -alphaBetaNegaMax(b, depth - 1 - reduction, -beta, -beta + 1, c1, ply + 1);
+            b.undoPass();
+            if (value >= beta && !timeout) {
+                // verification search without a pass at this node (one ply deeper, after the pass entry),
+                // against zugzwang
+                value = alphaBetaNegaMax(b, depth - reduction, beta - 1, beta, c, ply + 1);
+                if (value >= beta && !timeout) {
+                    transpositionTable.saveTTentry(hash, -1, beta, depth, Turn.NONE);
+                    return beta;
+                }
+            }
+        }
+
+        // move ordering
+        TurnGenerator turns = turnGenerator(b, c, tt, depth, ply);
+
+        int bestTurn = Turn.NONE;
+        int score = ninf;
+        int i = 0;
+        for (int t = turns.next(); t != Turn.NONE; t = turns.next(), i++) {
+            if (futile && turns.isQuiet()) {
+                // quiet turns can't raise the value to alpha, all remaining turns are quiet
+                score = max(score, futilityValue);
+                break;
+            }
+            if (i == 0) {
+                bestTurn = t;
+            }
+            plyTurns[ply] = t;
+            b.makeTurn(t);
+            // late quiet turns (not TT, capture, killer or countermove) are searched with reduced depth
+            int reduction = 0;
+            if (lateMoveReductions && depth >= LMR_MIN_DEPTH && i >= LMR_FULL_TURNS && depth < currentDepth
+                    && turns.isQuiet()) {
+                reduction = REDUCTIONS[min(depth, MAX_PLY - 1)][min(i, REDUCTIONS[0].length - 1)];
+            }
+            int value;
+            if (i == 0 || (!principalVariation && reduction == 0)) {
+                value = -alphaBetaNegaMax(b, depth - 1, -beta, -alpha, c1, ply + 1);
+            } else {
+                // null window to prove that the turn is not better, re-search if it fails high
+                value = -alphaBetaNegaMax(b, depth - 1 - reduction, -alpha - 1, -alpha, c1, ply + 1);
+                if (value > alpha && reduction > 0 && !timeout) {
+                    value = -alphaBetaNegaMax(b, depth - 1, -alpha - 1, -alpha, c1, ply + 1);
+                }
+                if (value > alpha && value < beta && !timeout) {
+                    value = -alphaBetaNegaMax(b, depth - 1, -beta, -alpha, c1, ply + 1);
+                }
+            }
+            b.undoTurn(t);
+            if (value > score) {
+                score = value;
+                bestTurn = t;
+                if (score > alpha) {
+                    alpha = score;
+                    // values after a timeout are not valid, the best turn of a partial iteration can be played
+                    if (depth == currentDepth && !timeout) {
+                        bestTurnAll = t;
+                        if (main) {
+                            System.out.println(Turn.toString(t) + " depth:" + depth + " score:" + score);
+                        }
+                    }
+                }
+                if (score >= beta) {
+                    if (depth > 1 && depth < 10 && !timeout) {
+                        killerMove[depth][killerPos] = t;
+                        killerPos ^= 1;
+                    }
+                    if (Turn.hasTwoMoves(t) && !timeout) {
+                        updateHistory(c, t, depth, ply);
+                    }
+                    break;
+                }
+            }
+        }
+        if (bestTurn == Turn.NONE) {
+            // no possible turns or all turns pruned
+            return futile ? score : player.evaluatePosition(b, c);
+        }
+        if (!timeout) {
+            int type = 0;
+            if (score <= olda) {
+                type = 1;
+            } else if (score >= beta) {
+                type = -1;
+            }
+            transpositionTable.saveTTentry(hash, type, score, depth, bestTurn);
+        }
+        // fail low with TT at maximum depth
+        if (depth == currentDepth && bestTurnAll == Turn.NONE && !timeout) {
+            bestTurnAll=bestTurn;
+        }
+
+
+        return score;
+
+    }
+
+    /**
+     * find value of current board position, every move is a ply of its own: the player to move only changes after
+     * the second motion move of a turn, so the transposition table, killer moves and cutoffs also act between the
+     * two moves. Captures and flagship moves are turns of one move and count as two plies.
+     * @param b board position
+     * @param depth remaining plies, even at the start of a turn
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player to move
+     * @param ply plies from the root
+     * @param firstMove first move of the current turn or Move.NONE at the start of a turn
+     * @return value of position
+     */
+    private int halfMoveNegaMax(Board b, int depth, int alpha, int beta, Color c, int ply, int firstMove) {
+        if (isTimeUp()) {
+            timeout = true;
+            return alpha;
+        }
+        nodeCounter++;
+        halfMoveBest[ply] = Move.NONE;
+
+        int olda = alpha;
+        long hash = firstMove == Move.NONE ? TT.hash(b, c) : TT.hashWithinTurn(b, c, firstMove);
+        long n = transpositionTable.retrieve(hash);
+        int tt = Move.NONE;
+        // transposition tables look-up, the positions of the root turn are always searched to find its moves
+        if (n != TT.EMPTY) {
+            tt = TT.getTurn(n);
+            boolean rootTurn = ply == 0 || (ply == 1 && firstMove != Move.NONE);
+            if (!rootTurn && TT.getDepth(n) >= depth) {
+                int ttValue = TT.getValue(n);
+                if (TT.getType(n) == -1) {
+                    alpha = max(alpha, ttValue);
+                } else if (TT.getType(n) == 1) {
+                    beta = min(beta, ttValue);
+                }
+                if (TT.getType(n) == 0 || alpha >= beta) {
+                    return ttValue;
+                }
+            }
+        }
+
+        if (firstMove == Move.NONE && depth <= 0 && quiescence && b.getResult() == Result.NONE) {
+            return quiescenceSearch(b, alpha, beta, c, 0);
+        }
+        if ((firstMove == Move.NONE && depth <= 0) || b.getResult() != Result.NONE) {
+            return player.evaluatePosition(b, c);
+        }
+
+        // all moves at the start of a turn, motion moves of the other ships after the first move
+        int[] moves = halfMoves[ply];
+        int[] scores = halfMoveScores[ply];
+        int count;
+        if (firstMove == Move.NONE) {
+            count = b.generateMoves(c, moves);
+        } else {
+            int fleet = c == Color.GOLD ? Piece.GOLD_FLEET : Piece.SILVER_FLEET;
+            int motionMoves = b.generateMotionMoves(fleet, Move.getTo(firstMove), moves);
+            // second moves which reach the same position in the other order are searched after the other first move
+            count = 0;
+            for (int i = 0; i < motionMoves; i++) {
+                if (Turn.isCanonical(firstMove, moves[i])) {
+                    moves[count++] = moves[i];
+                }
+            }
+        }
+        if (count == 0) {
+            // a first move without (canonical) second move is not a turn to search
+            return firstMove == Move.NONE ? player.evaluatePosition(b, c) : ninf;
+        }
+        int[] killers = halfMoveKillers[ply];
+        int[] values = history[c.ordinal()];
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            if (move == tt) {
+                scores[i] = TT_MOVE_SCORE;
+            } else if (Move.isSingleMove(move)) {
+                scores[i] = TurnGenerator.scoreSingleMove(b, c, move);
+            } else if (move == killers[0] || move == killers[1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = values[moveIndex(move)] - MAX_HISTORY - 1;
+            }
+        }
+
+        Color c1 = Color.GOLD;
+        if (c == Color.GOLD) {
+            c1 = Color.SILVER;
+        }
+
+        int bestMove = Move.NONE;
+        // complete turn of the best move (Turn.NONE if its second move is not known)
+        int bestTurn = Turn.NONE;
+        int score = ninf;
+        for (int i = 0; i < count; i++) {
+            // selection of the move with the highest score
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
+                }
+            }
+            int move = moves[best];
+            moves[best] = moves[i];
+            scores[best] = scores[i];
+            moves[i] = move;
+
+            int childFirst = Move.NONE;
+            int childDepth = depth - 1;
+            if (firstMove == Move.NONE && Move.isSingleMove(move)) {
+                childDepth = depth - 2;
+            } else if (firstMove == Move.NONE) {
+                childFirst = move;
+            }
+            b.makeMove(move);
+            if (childFirst != Move.NONE && b.getResult() != Result.NONE) {
+                // the first move ended the game, so it is the whole turn
+                childFirst = Move.NONE;
+                childDepth = depth - 2;
+            }
+            // the player doesn't change after the first move of a turn
+            Color childColor = childFirst != Move.NONE ? c : c1;
+            int value;
+            if (i == 0 || !principalVariation) {
+                value = halfMoveChild(b, childDepth, alpha, beta, c, childColor, ply + 1, childFirst);
+            } else {
+                value = halfMoveChild(b, childDepth, alpha, alpha + 1, c, childColor, ply + 1, childFirst);
+                if (value > alpha && value < beta && !timeout) {
+                    value = halfMoveChild(b, childDepth, alpha, beta, c, childColor, ply + 1, childFirst);
+                }
+            }
+            b.undoMove(move);
+            if (value > score) {
+                score = value;
+                bestMove = move;
+                bestTurn = Turn.encode(move);
+                if (childFirst != Move.NONE) {
+                    int second = halfMoveBest[ply + 1];
+                    bestTurn = second != Move.NONE ? Turn.encode(move, second) : Turn.NONE;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    if (ply == 0 && bestTurn != Turn.NONE && !timeout) {
+                        bestTurnAll = bestTurn;
+                        if (main) {
+                            System.out.println(Turn.toString(bestTurnAll) + " depth:" + depth / 2 + " score:" + score);
+                        }
+                    }
+                }
+                if (score >= beta) {
+                    if (!Move.isSingleMove(move) && !timeout) {
+                        if (killers[0] != move) {
+                            killers[1] = killers[0];
+                            killers[0] = move;
+                        }
+                        values[moveIndex(move)] += depth * depth;
+                        if (values[moveIndex(move)] >= MAX_HISTORY) {
+                            ageHistory(1);
+                        }
+                    }
+                    break;
+                }
+            }
+        }
+        halfMoveBest[ply] = bestMove;
+        if (!timeout) {
+            int type = 0;
+            if (score <= olda) {
+                type = 1;
+            } else if (score >= beta) {
+                type = -1;
+            }
+            transpositionTable.saveTTentry(hash, type, score, depth, Turn.encode(bestMove));
+        }
+        // fail low at the root
+        if (ply == 0 && bestTurnAll == Turn.NONE && !timeout) {
+            bestTurnAll = bestTurn;
+        }
+        return score;
+    }
+
+    /**
+     * Search a child of the half move search, the window is given from the view of the parent
+     * @param b board position of the child
+     * @param depth remaining plies
+     * @param alpha alpha value of the parent
+     * @param beta beta value of the parent
+     * @param c player to move at the parent
+     * @param childColor player to move at the child
+     * @param ply plies from the root
+     * @param firstMove first move of the turn if the child waits for the second move, otherwise Move.NONE
+     * @return value of the child from the view of the parent
+     */
+    private int halfMoveChild(Board b, int depth, int alpha, int beta, Color c, Color childColor, int ply,
+                              int firstMove) {
+        if (childColor == c) {
+            return halfMoveNegaMax(b, depth, alpha, beta, childColor, ply, firstMove);
+        }
+        return -halfMoveNegaMax(b, depth, -beta, -alpha, childColor, ply, firstMove);
+    }
+
+    /**
+     * Search captures and flagship escapes until the position is quiet. The player to move may stand pat, i.e.
+     * take the static evaluation instead of one of these moves.
+     * @param b board position
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player to move
+     * @param qply ply of the quiescence search
+     * @return value of position
+     */
+    private int quiescenceSearch(Board b, int alpha, int beta, Color c, int qply) {
+        return quiescenceSearch(b, alpha, beta, c, qply, player.evaluatePosition(b, c));
+    }
+
+    /**
+     * Search captures and flagship escapes with a given stand pat value
+     * @param b board position
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player to move
+     * @param qply ply of the quiescence search
+     * @param standPat value of the position if the player to move stands pat
+     * @return value of position
+     */
+    private int quiescenceSearch(Board b, int alpha, int beta, Color c, int qply, int standPat) {
+        if (b.getResult() != Result.NONE || qply == MAX_QUIESCENCE_PLY || standPat >= beta) {
+            return standPat;
+        }
+        alpha = max(alpha, standPat);
+
+        int[] moves = quiescenceMoves[qply];
+        int[] scores = quiescenceScores[qply];
+        int count = b.generateTacticalMoves(c, moves);
+        for (int i = 0; i < count; i++) {
+            scores[i] = TurnGenerator.scoreSingleMove(b, c, moves[i]);
+        }
+        Color c1 = Color.GOLD;
+        if (c == Color.GOLD) {
+            c1 = Color.SILVER;
+        }
+        int material = max(1, b.getMaterial(c));
+        int score = standPat;
+        for (int i = 0; i < count; i++) {
+            // selection of the move with the highest score
+            int best = i;
+            for (int j = i + 1; j < count; j++) {
+                if (scores[j] > scores[best]) {
+                    best = j;
+                }
+            }
+            int move = moves[best];
+            int moveScore = scores[best];
+            moves[best] = moves[i];
+            scores[best] = scores[i];
+
+            int captured = Move.getCapturedType(move);
+            if (moveScore != TurnGenerator.WINNING_SCORE && captured >= 0
+                    && standPat + 100 * Board.getPieceOfType(captured).getScore() / material + DELTA_MARGIN <= alpha) {
+                // delta pruning
+                continue;
+            }
+            nodeCounter++;
+            b.makeMove(move);
+            int value = -quiescenceSearch(b, -beta, -alpha, c1, qply + 1);
+            b.undoMove(move);
+            if (value > score) {
+                score = value;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Check whether a player can win with the next move by capturing the flagship or moving it to the edge
+     * @param b board position
+     * @param c player
+     * @return true if the player has a winning move
+     */
+    private boolean hasWinningMove(Board b, Color c) {
+        int count = b.generateTacticalMoves(c, threatMoves);
+        for (int i = 0; i < count; i++) {
+            if (TurnGenerator.scoreSingleMove(b, c, threatMoves[i]) == TurnGenerator.WINNING_SCORE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Prepare staged generation of the turns of a node: TT turn, captures and flagship moves, killer moves and
+     * countermove, then the other turns by history
+     * @param b board position
+     * @param c player to move
+     * @param t turn of the TT entry or Turn.NONE
+     * @param depth depth of the node
+     * @param ply plies from the root
+     * @return turn generator of the ply
+     */
+    private TurnGenerator turnGenerator(Board b, Color c, int t, int depth, int ply) {
+        if (generators[ply] == null) {
+            generators[ply] = new TurnGenerator();
+        }
+        int killer1 = Turn.NONE;
+        int killer2 = Turn.NONE;
+        if (depth > 1 && depth < 10) {
+            killer1 = killerMove[depth][killerPos ^ 1];
+            killer2 = killerMove[depth][killerPos];
+        }
+        int counter = ply > 0 && plyTurns[ply - 1] != Turn.NONE ? counterMove[c.ordinal()][lastMoveIndex(plyTurns[ply - 1])] : Turn.NONE;
+        generators[ply].init(b, c, t, killer1, killer2, counter, history[c.ordinal()]);
+        return generators[ply];
+    }
+
+    /**
+     * Prepare staged generation of the turns of a parallel node of the young brothers wait search with the killer
+     * moves and history of this searcher (the turn before the node is not known, so there is no countermove)
+     * @param generator turn generator of the node
+     * @param b board position
+     * @param c player to move
+     * @param t turn of the TT entry or Turn.NONE
+     * @param depth depth of the node
+     */
+    void initTurnGenerator(TurnGenerator generator, Board b, Color c, int t, int depth) {
+        int killer1 = Turn.NONE;
+        int killer2 = Turn.NONE;
+        if (depth > 1 && depth < 10) {
+            killer1 = killerMove[depth][killerPos ^ 1];
+            killer2 = killerMove[depth][killerPos];
+        }
+        generator.init(b, c, t, killer1, killer2, Turn.NONE, history[c.ordinal()]);
+    }
+}
@@ -4,143 +4,205 @@ import logic.Board;
 import logic.Color;
 import logic.Move;
 import logic.Turn;
-import pieces.Piece;
+import logic.Zobrist;
+
+import java.util.Arrays;
 
 /**
- * Class to organize transposition tables
+ * Class to organize transposition tables. The table is stored in two flat arrays: one with the hash value and one
+ * with the packed entry (see pack) of every slot. Slots are grouped into buckets of BUCKET_SIZE slots which
+ * share the same index. The size is given as memory budget and can be changed at runtime.
+ * The table is shared by search threads without locks: a slot stores hash value XOR entry, so a slot that was
+ * written by two threads at the same time doesn't match the hash value of either entry and is ignored.
  */
 public class TT {
-    private final int pieces = 3;
-    // random number for gold and silver player
-    private final long silver;
-    private final long gold;
-    private final long[][][] randomBoard = new long[Board.BOARD_SIZE][Board.BOARD_SIZE][pieces];
-    // 20 bits used as key (2^20 entries)
-    private final TTentry[] TT = new TTentry[1048576];
+    // empty slot or missing entry
+    public static final long EMPTY = 0;
+    private static final int BUCKET_SIZE = 4;
+    private static final int SCORE_OFFSET = 1 << 20;
+    private static final int MAX_DEPTH = 63;
+    // memory of one slot: hash value and packed entry
+    private static final int SLOT_BYTES = 16;
+    public static final int DEFAULT_MEGABYTES = 16;
+    public static final int MAX_MEGABYTES = 8192;
+    // number of buckets is a power of two, bucketMask selects the bucket index bits of a hash value
+    private int bucketMask;
+    private long[] hashes;
+    private long[] entries;
+    // search counter (4 bits) stored in every entry to find entries of previous searches
+    private int generation = 0;
 
     /**
-     * Initialize transposition tables
+     * Initialize transposition tables with default size
      */
     public TT() {
-        long upperBound = Long.MAX_VALUE;
-        silver = (long) (Math.random() * (upperBound));
-        gold =  (long) (Math.random() * (upperBound));
-        initializeRandomBoard();
+        this(DEFAULT_MEGABYTES);
     }
 
     /**
-     * Initialize randomBoard which is used for translations from Board b to hash value
+     * Initialize transposition tables
+     * @param megabytes memory budget of the table (1 - 8192 MB)
      */
-    public void initializeRandomBoard() {
-        long upperBound = Long.MAX_VALUE;
-        for (int i = 0; i < Board.BOARD_SIZE; i++) {
-            for (int j = 0; j < Board.BOARD_SIZE; j++) {
-                for (int k = 0; k < pieces; k++) {
-                    randomBoard[i][j][k] = (long) (Math.random() * (upperBound));
-                }
-            }
+    public TT(int megabytes) {
+        resize(megabytes);
+    }
+
+    /**
+     * Change size of the table, all entries are deleted. The number of buckets is the largest power of two that
+     * fits into the memory budget.
+     * @param megabytes memory budget of the table (1 - 8192 MB)
+     */
+    public void resize(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException("TT size must be between 1 and " + MAX_MEGABYTES + " MB: " + megabytes);
         }
+        long buckets = Long.highestOneBit((long) megabytes * 1024 * 1024 / (SLOT_BYTES * BUCKET_SIZE));
+        // release old table before allocating the new one
+        hashes = null;
+        entries = null;
+        bucketMask = (int) buckets - 1;
+        hashes = new long[(int) buckets * BUCKET_SIZE];
+        entries = new long[(int) buckets * BUCKET_SIZE];
+        generation = 0;
     }
 
     /**
-     * Calculate hash value for board position
-     * @param b Board position
-     * @param c Color of player for who board will be analyzed
-     * @return hash value of board position
+     * Delete all entries
      */
+    public void clear() {
+        Arrays.fill(hashes, 0);
+        Arrays.fill(entries, EMPTY);
+        generation = 0;
+    }
 
-    public long getHashBoard(Board b, Color c) {
-        long hash = 0;
-        for (int i = 0; i < Board.BOARD_SIZE; i++) {
-            for (int j = 0; j < Board.BOARD_SIZE; j++) {
-                if (b.getTile(i, j).isOccupied()) {
-                    int pieceValue = b.getTile(i, j).getPiece().getScore()-2;
-                    hash ^= randomBoard[i][j][pieceValue];
-                }
-            }
-        }
-        if(c == Color.GOLD) {
-            hash ^= gold;
-        } else {
-            hash ^= silver;
-        }
-        return hash;
+    /**
+     * Get memory used by the table
+     * @return size in megabytes
+     */
+    public int getMegabytes() {
+        return (int) ((long) entries.length * SLOT_BYTES / (1024 * 1024));
     }
 
     /**
-     * Compute hash value of board after a turn
-     * @param hash hash value of previous board position
-     * @param t turn to be done
-     * @return hash value of new board position
+     * Get hash value of a board position: Zobrist key of the pieces (see Board.getHash) and of the player to move
+     * @param b board position
+     * @param c player to move
+     * @return hash value of board position
      */
+    public static long hash(Board b, Color c) {
+        return c == Color.SILVER ? b.getHash() ^ Zobrist.SILVER_TO_MOVE : b.getHash();
+    }
 
-    public long computeHash(long hash, Turn t) {
-        Move m1 = t.getFirstMove();
-        hash = computeHashMove(hash, m1);
-        if (t.hasTwoMoves()) {
-            Move m2 = t.getSecondMove();
-            hash = computeHashMove(hash, m2);
-        }
-        hash ^= gold ^ silver;
-        return hash;
+    /**
+     * Get hash value of a board position within a turn: the player to move has made the first move of a turn
+     * and the ship of that move can't move again. First moves which reach the same position from different
+     * squares get different values, because only second moves in canonical order are searched after them.
+     * @param b board position after the first move
+     * @param c player to move
+     * @param firstMove encoded first move of the turn
+     * @return hash value of board position
+     */
+    public static long hashWithinTurn(Board b, Color c, int firstMove) {
+        return hash(b, c) ^ Zobrist.pending(Move.getFrom(firstMove), Move.getTo(firstMove));
     }
 
     /**
-     * Compute hash value of board after a move
-     * @param hash hash value of previous board position
-     * @param  m move to be done
-     * @return hash value of new board position
+     * Start a new search: entries of earlier searches are replaced first
      */
+    public void newSearch() {
+        generation = (generation + 1) & 15;
+    }
 
-    public long computeHashMove(long hash, Move m) {
-        int x1 = m.getX1();
-        int x2 = m.getX2();
-        int y1 = m.getY1();
-        int y2 = m.getY2();
-        int movedPieceValue = m.getPiece().getScore()-2;
-        hash ^= randomBoard[x1][y1][movedPieceValue] ^ randomBoard[x2][y2][movedPieceValue];
-        Piece capturedPiece = m.getCapturedPiece();
-        if (capturedPiece != null) {
-            int capturedPieceValue = capturedPiece.getScore()-2;
-            hash ^= randomBoard[x2][y2][capturedPieceValue];
-        }
-        return hash;
+    /**
+     * Pack an entry into a long: bits 0-30 turn, bits 31-51 value, bits 52-57 depth, bits 58-59 type
+     * and bits 60-63 generation
+     * @param type type of value: upper (1), lower(-1) or exact(0)
+     * @param value score of the board position
+     * @param depth search depth
+     * @param turn best turn in this position (encoded, see Turn)
+     * @return packed entry
+     */
+    private long pack(int type, int value, int depth, int turn) {
+        return turn
+                | (long) (value + SCORE_OFFSET) << 31
+                | (long) Math.min(depth, MAX_DEPTH) << 52
+                | (long) (type + 2) << 58
+                | (long) generation << 60;
+    }
+
+    public static int getTurn(long entry) {
+        return (int) (entry & 0x7FFFFFFF);
+    }
+
+    public static int getValue(long entry) {
+        return (int) ((entry >>> 31) & 0x1FFFFF) - SCORE_OFFSET;
+    }
+
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> 52) & 0x3F);
+    }
+
+    public static int getType(long entry) {
+        return (int) ((entry >>> 58) & 3) - 2;
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) (entry >>> 60);
     }
 
     /**
-     * Save new TT board entry
+     * Save new TT board entry. An entry of the same position is overwritten, otherwise the slot of the bucket
+     * with the lowest depth is replaced, where every search since the entry was saved counts as two plies less.
      * @param hash board position as hash value
      * @param type type of value: upper (1), lower(-1) or exact(0)
      * @param value score of the board position
      * @param depth search depth
-     * @param turn best turn in this position
+     * @param turn best turn in this position (encoded, see Turn)
      */
 
-    public void saveTTentry(long hash, int type, int value, int depth, Turn turn) {
-        long key = hash & 0xFFFFF;
-        TTentry entry = new TTentry(hash, type, value, depth, turn);
-        if (TT[(int) key] == null){
-            TT[(int) key] = entry;
+    public void saveTTentry(long hash, int type, int value, int depth, int turn) {
+        int bucket = ((int) hash & bucketMask) * BUCKET_SIZE;
+        int slot = bucket;
+        long old = EMPTY;
+        int lowestWorth = Integer.MAX_VALUE;
+        for (int i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            long entry = entries[i];
+            if (entry == EMPTY || (hashes[i] ^ entry) == hash) {
+                slot = i;
+                old = entry;
+                break;
+            }
+            int age = (generation - getGeneration(entry)) & 15;
+            int worth = getDepth(entry) - 2 * age;
+            if (worth < lowestWorth) {
+                lowestWorth = worth;
+                slot = i;
+            }
         }
-        else if (TT[(int) key].getDepth() <= depth){
-            TT[(int) key] = entry;
+        // keep best turn of the position if the new entry doesn't have one
+        if (turn == Turn.NONE && old != EMPTY) {
+            turn = getTurn(old);
         }
+        long entry = pack(type, value, depth, turn);
+        hashes[slot] = hash ^ entry;
+        entries[slot] = entry;
     }
 
     /**
      * get transposition table entry for position board and player
      * @param hash board position as hash value
-     * @return transposition table entry
+     * @return packed transposition table entry (read with getTurn, getValue, getDepth and getType) or EMPTY
      */
 
-    public TTentry retrieve(long hash){
-        long key = hash & 0xFFFFF;
-        TTentry entry = TT[(int)key];
-        if (entry != null && hash != entry.getHash()){
-            return null;
+    public long retrieve(long hash){
+        int bucket = ((int) hash & bucketMask) * BUCKET_SIZE;
+        for (int i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            long entry = entries[i];
+            if (entry != EMPTY && (hashes[i] ^ entry) == hash) {
+                return entry;
+            }
         }
-        return entry;
+        return EMPTY;
     }
 
 }
-
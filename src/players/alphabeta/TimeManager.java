@@ -0,0 +1,75 @@
+package players.alphabeta;
+
+/**
+ * Time limits of the search of one move. Without a game clock every move may take DEFAULT_MOVE_TIME. With a clock
+ * the soft limit is a share of the remaining time plus most of the increment: no new iteration of iterative
+ * deepening is started after it, nor if the next iteration is not expected to finish before the hard limit.
+ * The search is stopped at the hard limit.
+ */
+class TimeManager {
+    // time of a move without clock (ms)
+    static final long DEFAULT_MOVE_TIME = 30000;
+    // expected number of remaining turns of the game, the soft limit is the remaining time divided by it
+    private static final int MOVES_TO_GO = 30;
+    // the hard limit is this multiple of the soft limit
+    private static final int HARD_LIMIT_FACTOR = 4;
+    // time kept for the overhead outside the search (ms)
+    private static final long SAFETY_MARGIN = 50;
+    // an iteration takes about this multiple of the time of the previous iteration
+    private static final int ITERATION_GROWTH = 4;
+
+    // remaining time of the player (ms), -1 without clock
+    private long remaining = -1;
+    private long increment;
+    // start of the search (System.nanoTime) and limits relative to the start (ns)
+    private long start;
+    private long softLimit;
+    private long hardLimit;
+
+    /**
+     * Set state of the game clock before a move
+     * @param remaining remaining time of the player (ms)
+     * @param increment time added after every turn (ms)
+     */
+    void setClock(long remaining, long increment) {
+        this.remaining = remaining;
+        this.increment = increment;
+    }
+
+    /**
+     * Start the search of a move and compute its time limits
+     */
+    void startMove() {
+        start = System.nanoTime();
+        long soft = DEFAULT_MOVE_TIME;
+        long hard = DEFAULT_MOVE_TIME;
+        if (remaining >= 0) {
+            long available = Math.max(0, remaining - SAFETY_MARGIN);
+            hard = Math.min(available, (available / MOVES_TO_GO + 3 * increment / 4) * HARD_LIMIT_FACTOR);
+            soft = hard / HARD_LIMIT_FACTOR;
+        }
+        softLimit = soft * 1000000;
+        hardLimit = hard * 1000000;
+    }
+
+    /**
+     * Get the time at which the search has to stop
+     * @return deadline (System.nanoTime)
+     */
+    long getDeadline() {
+        return start + hardLimit;
+    }
+
+    /**
+     * Decide whether the next iteration of iterative deepening is started
+     * @param lastIteration duration of the last completed iteration (ns)
+     * @return true if the next iteration can be started
+     */
+    boolean canStartIteration(long lastIteration) {
+        long elapsed = System.nanoTime() - start;
+        if (remaining < 0) {
+            return elapsed < softLimit;
+        }
+        return elapsed < softLimit && elapsed + ITERATION_GROWTH * lastIteration <= hardLimit;
+    }
+}
@@ -0,0 +1,306 @@
+package players.alphabeta;
+
+import logic.*;
+import pieces.Piece;
+
+/**
+ * Staged generation of the turns of one node for the search. Turns are produced one by one in the order
+ * TT turn, single move turns (winning moves, captures by victim and exposure, flagship moves), killer moves and
+ * countermove, then turns of two motion moves. Turns of two moves are only generated when all earlier turns
+ * were searched, which saves the generation of thousands of turns at nodes with an early beta cutoff.
+ */
+class TurnGenerator {
+    private static final int TT = 0;
+    private static final int SINGLE_MOVES = 1;
+    private static final int KILLERS = 2;
+    private static final int QUIET = 3;
+    private static final int DONE = 4;
+
+    // ordering scores of single moves
+    static final int WINNING_SCORE = Integer.MAX_VALUE;
+    private static final int CAPTURE_SCORE = 1 << 20;
+    private static final int FLAGSHIP_SCORE = 0;
+
+    private Board board;
+    private Color player;
+    private int[] history;
+    private int stage;
+    // TT turn, killer moves and countermove: produced before the quiet turns
+    private final int[] specialTurns = new int[4];
+    private int specialCount;
+    private int specialIndex;
+
+    // all moves of the player, moves which can't be combined with a second move are scored and selected first
+    private final int[] moves = new int[Board.MAX_MOVES];
+    private final int[] moveScores = new int[Board.MAX_MOVES];
+    private int moveCount;
+    private int moveIndex;
+    // second moves after the current first move, sorted by history
+    private final int[] secondMoves = new int[Board.MAX_MOVES];
+    private final int[] secondScores = new int[Board.MAX_MOVES];
+    private int secondCount;
+    private int secondIndex;
+    private int firstMove;
+
+    /**
+     * Start generation of turns of a node
+     * @param board board position, it has to be the same whenever next is called
+     * @param player player to move
+     * @param ttTurn turn of the TT entry or Turn.NONE
+     * @param killer1 most recent killer move or Turn.NONE
+     * @param killer2 older killer move or Turn.NONE
+     * @param counter countermove of the last move of the opponent or Turn.NONE
+     * @param history history values of the player by move index (see Searcher)
+     */
+    void init(Board board, Color player, int ttTurn, int killer1, int killer2, int counter, int[] history) {
+        this.board = board;
+        this.player = player;
+        this.history = history;
+        specialCount = 0;
+        specialIndex = 0;
+        specialTurns[specialCount++] = Turn.canonical(ttTurn);
+        addSpecialTurn(killer1);
+        addSpecialTurn(killer2);
+        addSpecialTurn(counter);
+        stage = TT;
+    }
+
+    private void addSpecialTurn(int turn) {
+        if (turn == Turn.NONE || isSingleMoveTurn(turn)) {
+            return;
+        }
+        // the quiet stage only produces turns in canonical order
+        turn = Turn.canonical(turn);
+        for (int i = 0; i < specialCount; i++) {
+            if (specialTurns[i] == turn) {
+                return;
+            }
+        }
+        specialTurns[specialCount++] = turn;
+    }
+
+    /**
+     * Check whether a turn is made of one capture or flagship move (these are produced in their own stage)
+     * @param turn encoded turn
+     * @return true for turns of one single move
+     */
+    private static boolean isSingleMoveTurn(int turn) {
+        return !Turn.hasTwoMoves(turn) && Move.isSingleMove(Turn.getFirstMove(turn));
+    }
+
+    /**
+     * Get next turn
+     * @return encoded turn or Turn.NONE if all turns were produced
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case TT:
+                    stage = SINGLE_MOVES;
+                    generateMoves();
+                    int ttTurn = specialTurns[0];
+                    if (ttTurn != Turn.NONE && board.isPossibleTurn(ttTurn, player)) {
+                        return ttTurn;
+                    }
+                    specialTurns[0] = Turn.NONE;
+                    break;
+                case SINGLE_MOVES:
+                    int move = selectSingleMove();
+                    if (move != Move.NONE) {
+                        if (move != specialTurns[0]) {
+                            return Turn.encode(move);
+                        }
+                        break;
+                    }
+                    stage = KILLERS;
+                    specialIndex = 1;
+                    break;
+                case KILLERS:
+                    if (specialIndex < specialCount) {
+                        int turn = specialTurns[specialIndex++];
+                        if (board.isPossibleTurn(turn, player)) {
+                            return turn;
+                        }
+                        // not possible here, so it doesn't need to be skipped later
+                        specialTurns[specialIndex - 1] = Turn.NONE;
+                        break;
+                    }
+                    stage = QUIET;
+                    firstMove = Move.NONE;
+                    break;
+                case QUIET:
+                    int turn = nextQuietTurn();
+                    if (turn == Turn.NONE) {
+                        stage = DONE;
+                        break;
+                    }
+                    if (!isSpecialTurn(turn)) {
+                        return turn;
+                    }
+                    break;
+                default:
+                    return Turn.NONE;
+            }
+        }
+    }
+
+    /**
+     * Check whether the last turn was a quiet turn, i.e. a turn of two motion moves which isn't the TT turn,
+     * a killer move or the countermove
+     * @return true for quiet turns
+     */
+    boolean isQuiet() {
+        return stage == QUIET;
+    }
+
+    private boolean isSpecialTurn(int turn) {
+        for (int i = 0; i < specialCount; i++) {
+            if (specialTurns[i] == turn) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Generate all moves and score them: single moves by scoreSingleMove, first moves of two move turns by
+     * history. Single moves are selected first, the other moves are sorted when the quiet stage begins.
+     */
+    private void generateMoves() {
+        moveCount = board.generateMoves(player, moves);
+        moveIndex = 0;
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            if (Move.isSingleMove(move)) {
+                moveScores[i] = scoreSingleMove(board, player, move);
+            } else {
+                moveScores[i] = Integer.MIN_VALUE;
+            }
+        }
+    }
+
+    /**
+     * Select the single move with the highest score of the remaining moves
+     * @return encoded move or Move.NONE if all single moves were selected
+     */
+    private int selectSingleMove() {
+        int best = -1;
+        for (int i = moveIndex; i < moveCount; i++) {
+            if (moveScores[i] != Integer.MIN_VALUE && (best < 0 || moveScores[i] > moveScores[best])) {
+                best = i;
+            }
+        }
+        if (best < 0) {
+            return Move.NONE;
+        }
+        int move = moves[best];
+        moveScores[best] = Integer.MIN_VALUE;
+        return move;
+    }
+
+    /**
+     * Score a capture or flagship move: capturing the flagship or moving it to the edge wins, captures are
+     * ordered by the value of the captured piece and lose the value of the capturing piece if it can be captured
+     * back.
+     * @param b board position before the move
+     * @param c player to move
+     * @param move encoded capture or flagship move (see Move)
+     * @return ordering score
+     */
+    static int scoreSingleMove(Board b, Color c, int move) {
+        int captured = Move.getCapturedType(move);
+        int to = Move.getTo(move);
+        int type = b.getPieceType(Move.getFrom(move));
+        if (captured == Piece.FLAGSHIP || (type == Piece.FLAGSHIP && BitBoard.isEdge(to))) {
+            return WINNING_SCORE;
+        }
+        if (captured < 0) {
+            return FLAGSHIP_SCORE;
+        }
+        int score = CAPTURE_SCORE + 16 * Board.getPieceOfType(captured).getScore();
+        if (b.isAttacked(to, c)) {
+            score -= Board.getPieceOfType(type).getScore();
+        }
+        return score;
+    }
+
+    /**
+     * Produce the next turn of two motion moves. First moves are taken by descending history, the second moves
+     * of every first move are generated when the first move is taken.
+     * @return encoded turn or Turn.NONE if all turns were produced
+     */
+    private int nextQuietTurn() {
+        while (firstMove == Move.NONE || secondIndex >= secondCount) {
+            if (firstMove == Move.NONE) {
+                // all single moves were taken, sort the motion moves by history
+                moveCount = compactMotionMoves();
+                sortByScore(moves, moveScores, moveCount);
+                moveIndex = 0;
+            }
+            if (moveIndex >= moveCount) {
+                return Turn.NONE;
+            }
+            firstMove = moves[moveIndex++];
+            board.makeMove(firstMove);
+            if (board.getResult() != Result.NONE) {
+                board.undoMove(firstMove);
+                secondCount = 0;
+                secondIndex = 0;
+                return Turn.encode(firstMove);
+            }
+            int fleet = player == Color.GOLD ? Piece.GOLD_FLEET : Piece.SILVER_FLEET;
+            // only motion moves of the other ships are possible as second move
+            int count = board.generateMotionMoves(fleet, Move.getTo(firstMove), secondMoves);
+            board.undoMove(firstMove);
+            // turns whose moves are in the other order reach the same position (see Turn.isCanonical)
+            secondCount = 0;
+            for (int i = 0; i < count; i++) {
+                if (Turn.isCanonical(firstMove, secondMoves[i])) {
+                    secondMoves[secondCount] = secondMoves[i];
+                    secondScores[secondCount] = history[Searcher.moveIndex(secondMoves[i])];
+                    secondCount++;
+                }
+            }
+            sortByScore(secondMoves, secondScores, secondCount);
+            secondIndex = 0;
+        }
+        return Turn.encode(firstMove, secondMoves[secondIndex++]);
+    }
+
+    /**
+     * Remove the single moves from the move buffer and score the remaining motion moves by history
+     * @return number of motion moves
+     */
+    private int compactMotionMoves() {
+        int count = 0;
+        for (int i = 0; i < moveCount; i++) {
+            if (!Move.isSingleMove(moves[i])) {
+                moves[count] = moves[i];
+                moveScores[count] = history[Searcher.moveIndex(moves[i])];
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sort moves by descending score (insertion sort, moves with the same score keep their order)
+     * @param moves encoded moves
+     * @param scores scores of the moves
+     * @param count number of moves
+     */
+    private static void sortByScore(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package players.alphabeta;
+
+import logic.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Integer.max;
+import static java.lang.Integer.min;
+import static players.alphabeta.AlphaBetaPlayer.ninf;
+
+/**
+ * Parallel alpha beta search with work stealing (young brothers wait). At every node the first turn in the order
+ * of the sequential search (TT turn, captures and flagship moves, killer moves, see TurnGenerator) is searched
+ * before the remaining turns are searched in parallel by the threads of a fork/join pool. A beta cutoff of one sibling cancels the other siblings and their subtrees. Nodes close to the leaves
+ * are searched sequentially by a searcher of the current thread.
+ */
+class YoungBrothersWait implements RootSearch {
+    // nodes with a smaller depth are searched sequentially
+    private static final int SPLIT_DEPTH = 2;
+
+    private final AlphaBetaPlayer player;
+    private final TT transpositionTable;
+    private final ForkJoinPool pool;
+    // sequential searcher of every thread, all of them are kept to count their nodes
+    private final List<Searcher> searchers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Searcher> threadSearcher;
+    // nodes searched in parallel nodes since the start of the current move
+    private final LongAdder nodeCounter = new LongAdder();
+
+    private volatile boolean stopped;
+    private volatile boolean timeout;
+    private long deadline;
+    private Node root;
+    private int bestTurnAll;
+
+    /**
+     * Node of the search tree at which siblings are searched in parallel. The best value of the node is
+     * updated by its children, a node is cancelled after a beta cutoff.
+     */
+    static final class Node {
+        private final Node parent;
+        private volatile boolean cancelled;
+        private int alpha;
+        private int score = ninf;
+        private int bestTurn = Turn.NONE;
+        // last turn which raised alpha, its value is exact or a lower bound (the best turn may only have an upper
+        // bound after a fail low)
+        private int alphaTurn = Turn.NONE;
+
+        Node(Node parent, int alpha) {
+            this.parent = parent;
+            this.alpha = alpha;
+        }
+
+        /**
+         * Check if this node or one of its ancestors is cancelled
+         * @return true if the search of this node is not needed anymore
+         */
+        boolean isCancelled() {
+            for (Node node = this; node != null; node = node.parent) {
+                if (node.cancelled) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized int getAlpha() {
+            return alpha;
+        }
+
+        /**
+         * Update node with the value of a child, a value >= beta cancels the remaining children
+         * @param value value of the child
+         * @param turn turn leading to the child (encoded, see Turn)
+         * @param beta beta value of the node
+         */
+        synchronized void update(int value, int turn, int beta) {
+            if (value > score) {
+                score = value;
+                bestTurn = turn;
+            }
+            if (value > alpha) {
+                alpha = value;
+                alphaTurn = turn;
+                if (value >= beta) {
+                    cancelled = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Initialize parallel search
+     * @param player player whose evaluation function is used
+     * @param transpositionTable transposition table shared by all threads
+     * @param threads number of threads
+     */
+    YoungBrothersWait(AlphaBetaPlayer player, TT transpositionTable, int threads) {
+        this.player = player;
+        this.transpositionTable = transpositionTable;
+        this.pool = new ForkJoinPool(threads);
+        this.threadSearcher = ThreadLocal.withInitial(() -> {
+            Searcher searcher = new Searcher(player, transpositionTable, false);
+            searchers.add(searcher);
+            return searcher;
+        });
+    }
+
+    /**
+     * Stop the threads of the pool
+     */
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @Override
+    public void startSearch(long deadline) {
+        this.deadline = deadline;
+        stopped = false;
+        timeout = false;
+        nodeCounter.reset();
+        for (Searcher searcher : searchers) {
+            searcher.startSearch(deadline);
+        }
+    }
+
+    @Override
+    public int search(Board b, int depth, int alpha, int beta, Color c) {
+        Node node = new Node(null, alpha);
+        root = node;
+        if (stopped) {
+            node.cancelled = true;
+        }
+        int value = pool.invoke(new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                return negaMax(b, depth, alpha, beta, c, node);
+            }
+        });
+        // like Searcher: a turn is only played if it raised alpha before a timeout, or as best turn of a
+        // completed fail low
+        bestTurnAll = node.alphaTurn;
+        if (bestTurnAll == Turn.NONE && !isTimeout()) {
+            bestTurnAll = node.bestTurn;
+        }
+        return value;
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        Node node = root;
+        if (node != null) {
+            node.cancelled = true;
+        }
+    }
+
+    @Override
+    public boolean isTimeout() {
+        return timeout || stopped;
+    }
+
+    @Override
+    public int getBestTurn() {
+        return bestTurnAll;
+    }
+
+    @Override
+    public long getNodes() {
+        long nodes = nodeCounter.sum();
+        for (Searcher searcher : searchers) {
+            nodes += searcher.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * Check if the result of a node is not valid because of a timeout or because an ancestor was cancelled
+     * @param node node of the search tree
+     * @return true if the result has to be ignored
+     */
+    private boolean isAborted(Node node) {
+        return timeout || stopped || (node.parent != null && node.parent.isCancelled());
+    }
+
+    /**
+     * find value of current board position, siblings are searched in parallel
+     * @param b board position, it is not changed while children are searched in parallel
+     * @param depth depth at which board position should be searched
+     * @param alpha alpha value
+     * @param beta beta value
+     * @param c player to move
+     * @param node node of this position
+     * @return value of position
+     */
+    private int negaMax(Board b, int depth, int alpha, int beta, Color c, Node node) {
+        // parallel nodes are few, the clock is read at each of them
+        if (System.nanoTime() > deadline) {
+            timeout = true;
+        }
+        if (isAborted(node)) {
+            return alpha;
+        }
+        if (node.parent != null && (depth < SPLIT_DEPTH || b.getResult() != Result.NONE)) {
+            Searcher searcher = threadSearcher.get();
+            int value = searcher.searchSubtree(b, depth, alpha, beta, c, deadline, node);
+            if (searcher.isTimeout() && System.nanoTime() > deadline) {
+                timeout = true;
+            }
+            return value;
+        }
+        nodeCounter.increment();
+        if (node.parent != null && b.isRepetition()) {
+            return Searcher.DRAW;
+        }
+
+        int olda = alpha;
+        long hash = TT.hash(b, c);
+        long n = transpositionTable.retrieve(hash);
+        int tt = Turn.NONE;
+        // transposition tables look-up
+        if (n != TT.EMPTY) {
+            tt = TT.getTurn(n);
+            if (TT.getDepth(n) >= depth) {
+                int ttValue = TT.getValue(n);
+                if (TT.getType(n) == -1) {
+                    alpha = max(alpha, ttValue);
+                } else if (TT.getType(n) == 1) {
+                    beta = min(beta, ttValue);
+                }
+                if (TT.getType(n) == 0 || alpha >= beta) {
+                    node.bestTurn = tt;
+                    if (TT.getType(n) != 1) {
+                        node.alphaTurn = tt;
+                    }
+                    return ttValue;
+                }
+            }
+        }
+
+        // turns are ordered like in the sequential search with the killer moves and history of this thread, the
+        // generator and the turns are allocated for every parallel node because the buffers of the searchers
+        // belong to their thread
+        TurnGenerator generator = new TurnGenerator();
+        threadSearcher.get().initTurnGenerator(generator, b, c, tt, depth);
+        TurnList turns = new TurnList();
+        for (int t = generator.next(); t != Turn.NONE; t = generator.next()) {
+            turns.add(t);
+        }
+        if (turns.size() == 0) {
+            return player.evaluatePosition(b, c);
+        }
+
+        Color c1 = Color.GOLD;
+        if (c == Color.GOLD) {
+            c1 = Color.SILVER;
+        }
+
+        // eldest brother: search sequentially to get a bound for the young brothers
+        node.alpha = alpha;
+        int first = turns.get(0);
+        b.makeTurn(first);
+        int value = -negaMax(b, depth - 1, -beta, -alpha, c1, new Node(node, -beta));
+        b.undoTurn(first);
+        if (isAborted(node)) {
+            return alpha;
+        }
+        node.update(value, first, beta);
+
+        // young brothers: search in parallel
+        if (value < beta && turns.size() > 1) {
+            Brother[] brothers = new Brother[turns.size() - 1];
+            for (int i = 1; i < turns.size(); i++) {
+                brothers[i - 1] = new Brother(b, turns.get(i), depth, beta, c1, node);
+            }
+            ForkJoinTask.invokeAll(brothers);
+            if (isAborted(node)) {
+                return alpha;
+            }
+        }
+
+        int score = node.score;
+        int type = 0;
+        if (score <= olda) {
+            type = 1;
+        } else if (score >= beta) {
+            type = -1;
+        }
+        transpositionTable.saveTTentry(hash, type, score, depth, node.bestTurn);
+        return score;
+    }
+
+    /**
+     * Search of a young brother on a copy of the board
+     */
+    private final class Brother extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Board board;
+        private final int turn;
+        private final int depth;
+        private final int beta;
+        private final Color c1;
+        private final Node node;
+
+        /**
+         * @param board board position of the parent node
+         * @param turn turn leading to this brother (encoded, see Turn)
+         * @param depth depth of the parent node
+         * @param beta beta value of the parent node
+         * @param c1 player to move after the turn
+         * @param node parent node
+         */
+        Brother(Board board, int turn, int depth, int beta, Color c1, Node node) {
+            this.board = board;
+            this.turn = turn;
+            this.depth = depth;
+            this.beta = beta;
+            this.c1 = c1;
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            if (timeout || node.isCancelled()) {
+                return;
+            }
+            // the parent board is only read while its children are searched
+            Board child = board.clone();
+            child.makeTurn(turn);
+            // alpha may have been raised by brothers which finished before
+            int alpha = node.getAlpha();
+            int value;
+            if (player.isPrincipalVariationSearch()) {
+                value = -negaMax(child, depth - 1, -alpha - 1, -alpha, c1, new Node(node, -alpha - 1));
+                if (value > alpha && value < beta && !isAborted(node)) {
+                    value = -negaMax(child, depth - 1, -beta, -alpha, c1, new Node(node, -beta));
+                }
+            } else {
+                value = -negaMax(child, depth - 1, -beta, -alpha, c1, new Node(node, -beta));
+            }
+            if (timeout || stopped || node.isCancelled()) {
+                return;
+            }
+            node.update(value, turn, beta);
+        }
+    }
+}
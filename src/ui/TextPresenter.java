@@ -24,7 +24,7 @@ public class TextPresenter implements GamePresenter {
                 System.out.println("Gold won!");
                 break;
             case TIE:
-                System.out.println("No player made a turn, tie!");
+                System.out.println("Tie: no player made a turn or the same position occurred three times!");
                 break;
         }
     }
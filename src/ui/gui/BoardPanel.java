@@ -1,5 +1,6 @@
 package ui.gui;
 
+import logic.BitBoard;
 import logic.Board;
 import logic.Move;
 import logic.Tile;
@@ -8,7 +9,6 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.util.ArrayList;
 
 /**
  * Class to produce GUI Window with Board
@@ -113,13 +113,15 @@ public class BoardPanel extends JPanel implements MouseListener {
     /**
      * Tag/untag all destination tiles of the moves.
      *
-     * @param moves list of possible moves
+     * @param moves buffer of possible moves (encoded, see Move)
+     * @param count number of moves in the buffer
      * @param b     current board position
      * @param tag   boolean to indicate if it should be tagged or not
      */
-    public void tagPossibleMoves(ArrayList<Move> moves, Board b, boolean tag) {
-        for (Move m : moves) {
-            TilePanel tp = tilePanels[m.getX2()][m.getY2()];
+    public void tagPossibleMoves(int[] moves, int count, Board b, boolean tag) {
+        for (int i = 0; i < count; i++) {
+            int to = Move.getTo(moves[i]);
+            TilePanel tp = tilePanels[BitBoard.row(to)][BitBoard.column(to)];
             tp.setPotentialMoveDestination(tag);
         }
         updateBoard(b);
@@ -64,7 +64,7 @@ public class DialogResultPresenter {
     private void presentTie() {
         JOptionPane.showMessageDialog(
                 parent,
-                "No player was able to make a move in the last round.",
+                "No player was able to make a move in the last round, or the same position occurred three times.",
                 "Tie",
                 JOptionPane.WARNING_MESSAGE);
     }